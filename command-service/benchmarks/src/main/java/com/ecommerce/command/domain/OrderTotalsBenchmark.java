@@ -0,0 +1,63 @@
+package com.ecommerce.command.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building orders item by item, where every {@link Order#addItem} adds the line to the running
+ * total, and recalculating the total of an existing order from its lines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OrderTotalsBenchmark {
+    
+    @Param({"1", "100", "10000"})
+    private int items;
+    
+    private List<OrderItem> orderItems;
+    private Order order;
+    
+    @Setup
+    public void setUp() {
+        orderItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            OrderItem item = new OrderItem();
+            item.setQuantity(1 + i % 5);
+            item.setUnitPrice(Money.ofMinorUnits(199 + i));
+            orderItems.add(item);
+        }
+        order = buildOrder();
+    }
+    
+    @Benchmark
+    public Order buildOrder() {
+        Order built = new Order();
+        for (OrderItem item : orderItems) {
+            built.addItem(item);
+        }
+        return built;
+    }
+    
+    @Benchmark
+    public Money recalculateTotalAmount() {
+        order.recalculateTotalAmount();
+        return order.getTotalAmount();
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.command.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link BigDecimal} operations behind product pricing, next to their {@link Money}
+ * counterparts used for orders: line totals, summing line totals, rounding to the column scale
+ * and detecting price changes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PricingBenchmark {
+    
+    private static final int LINES = 20;
+    
+    private BigDecimal unitPrice;
+    private int quantity;
+    private BigDecimal[] lineTotals;
+    private BigDecimal previousPrice;
+    private BigDecimal unroundedPrice;
+    private Money unitPriceMoney;
+    private Money[] lineTotalsMoney;
+    
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        unitPrice = BigDecimal.valueOf(random.nextInt(100, 100_000), 2);
+        quantity = random.nextInt(1, 10);
+        lineTotals = new BigDecimal[LINES];
+        for (int i = 0; i < LINES; i++) {
+            lineTotals[i] = BigDecimal.valueOf(random.nextInt(100, 100_000), 2);
+        }
+        previousPrice = unitPrice.add(BigDecimal.ONE);
+        unroundedPrice = unitPrice.divide(BigDecimal.valueOf(3), 10, RoundingMode.HALF_UP);
+        unitPriceMoney = Money.of(unitPrice);
+        lineTotalsMoney = new Money[LINES];
+        for (int i = 0; i < LINES; i++) {
+            lineTotalsMoney[i] = Money.of(lineTotals[i]);
+        }
+    }
+    
+    @Benchmark
+    public BigDecimal lineTotal() {
+        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+    
+    @Benchmark
+    public Money lineTotalMoney() {
+        // OrderItem.calculateTotalPrice
+        return unitPriceMoney.times(quantity);
+    }
+    
+    @Benchmark
+    public BigDecimal sumLineTotalsStream() {
+        return Arrays.stream(lineTotals).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+    
+    @Benchmark
+    public BigDecimal sumLineTotalsLoop() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal lineTotal : lineTotals) {
+            total = total.add(lineTotal);
+        }
+        return total;
+    }
+    
+    @Benchmark
+    public Money sumLineTotalsMoney() {
+        // Order.recalculateTotalAmount
+        long total = 0;
+        for (Money lineTotal : lineTotalsMoney) {
+            total = Math.addExact(total, lineTotal.getMinorUnits());
+        }
+        return Money.ofMinorUnits(total);
+    }
+    
+    @Benchmark
+    public BigDecimal roundToColumnScale() {
+        return unroundedPrice.setScale(2, RoundingMode.HALF_UP);
+    }
+    
+    @Benchmark
+    public Money roundToMoney() {
+        return Money.of(unroundedPrice, RoundingMode.HALF_UP);
+    }
+    
+    @Benchmark
+    public boolean priceChanged() {
+        // ProductServiceImpl.updateProduct
+        return unitPrice.compareTo(previousPrice) != 0;
+    }
+}
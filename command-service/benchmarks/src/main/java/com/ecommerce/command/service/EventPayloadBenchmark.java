@@ -0,0 +1,119 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.config.JacksonConfig;
+import com.ecommerce.command.domain.Inventory;
+import com.ecommerce.command.domain.Money;
+import com.ecommerce.command.domain.Order;
+import com.ecommerce.command.domain.OrderItem;
+import com.ecommerce.command.domain.Product;
+import com.ecommerce.command.domain.ProductTag;
+import com.ecommerce.command.domain.Tag;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the outbox event payloads, using the service's {@link ObjectMapper}
+ * configuration and the same payload builders as the services.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EventPayloadBenchmark {
+    
+    @Param({"0", "10"})
+    private int tags;
+    
+    @Param({"1", "20"})
+    private int items;
+    
+    private ObjectMapper objectMapper;
+    private ProductSnapshotServiceImpl productSnapshotService;
+    private String lastPayload;
+    private Product product;
+    private Order order;
+    private Inventory inventory;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = new JacksonConfig().objectMapper();
+        OutboxService outboxService = (aggregateType, aggregateId, eventType, payload) -> {
+            lastPayload = payload;
+            return null;
+        };
+        productSnapshotService = new ProductSnapshotServiceImpl(null, outboxService, objectMapper, null, null);
+        
+        product = new Product();
+        product.setId(1L);
+        product.setSku("SKU-000001");
+        product.setName("Benchmark product");
+        product.setDescription("A product with a realistic amount of descriptive text for the snapshot payload");
+        product.setPrice(new BigDecimal("19.99"));
+        product.setUpdatedAt(ZonedDateTime.now());
+        for (long i = 1; i <= tags; i++) {
+            Tag tag = new Tag();
+            tag.setId(i);
+            tag.setName("tag-" + i);
+            ProductTag productTag = new ProductTag();
+            productTag.setProduct(product);
+            productTag.setTag(tag);
+            productTag.setTagValue("value-" + i);
+            product.getTags().add(productTag);
+        }
+        
+        order = new Order();
+        order.setId(1L);
+        order.setOrderNumber("ORD-20250115-10000");
+        order.setCreatedAt(ZonedDateTime.now());
+        for (long i = 1; i <= items; i++) {
+            Product itemProduct = new Product();
+            itemProduct.setId(i);
+            OrderItem item = new OrderItem();
+            item.setId(i);
+            item.setProduct(itemProduct);
+            item.setQuantity((int) i);
+            item.setUnitPrice(Money.ofMinorUnits(499));
+            order.addItem(item);
+        }
+        
+        inventory = new Inventory();
+        inventory.setId(1L);
+        inventory.setProduct(product);
+        inventory.setQuantity(100);
+        inventory.setVersion(3);
+        inventory.setUpdatedAt(ZonedDateTime.now());
+    }
+    
+    @Benchmark
+    public String productSnapshot() {
+        productSnapshotService.publishSnapshot(product, "snapshot");
+        return lastPayload;
+    }
+    
+    @Benchmark
+    public String orderCreated() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(OrderEvents.payload(order));
+    }
+    
+    @Benchmark
+    public String inventoryUpdated() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(InventoryEvents.payload(inventory));
+    }
+}
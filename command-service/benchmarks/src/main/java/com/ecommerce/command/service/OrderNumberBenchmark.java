@@ -0,0 +1,38 @@
+package com.ecommerce.command.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawing order number candidates, alone and with several request threads drawing at once. Claiming
+ * a candidate in {@code order_numbers} is a database round trip and not covered here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OrderNumberBenchmark {
+    
+    @Benchmark
+    public String generateOrderNumber() {
+        return OrderNumbers.generate();
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public String generateOrderNumberContended() {
+        return OrderNumbers.generate();
+    }
+}
@@ -0,0 +1,128 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.datasource.ConsistentHashRing;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.domain.OutboxEvent;
+import com.ecommerce.command.repository.OutboxRepository;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pass of the outbox relay over a batch of events, with Kafka and the database stubbed out,
+ * so the result is the relay's own cost per batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OutboxDrainBenchmark {
+    
+    @Param({"100", "1000"})
+    private int batchSize;
+    
+    private OutboxShardDrainer drainer;
+    
+    @Setup
+    public void setUp() {
+        List<OutboxEvent> events = new ArrayList<>(batchSize);
+        for (long i = 1; i <= batchSize; i++) {
+            OutboxEvent event = new OutboxEvent();
+            event.setId(i);
+            event.setAggregateType(i % 2 == 0 ? "product" : "order");
+            event.setAggregateId(Long.toString(i));
+            event.setEventType("created");
+            event.setPayload("{\"id\":\"" + i + "\",\"name\":\"Benchmark event\"}");
+            event.setCreatedAt(ZonedDateTime.now());
+            event.setProcessed(false);
+            events.add(event);
+        }
+        
+        // No tracer bean, so the relay's spans are no-ops
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        drainer = new OutboxShardDrainer(
+                outboxRepository(events),
+                new AcknowledgingKafkaTemplate(),
+                new OutboxTracing(beanFactory.getBeanProvider(Tracer.class), beanFactory.getBeanProvider(Propagator.class)),
+                new NoOpTransactionManager(),
+                new ShardRouter(new ConsistentHashRing(1, 1), false));
+    }
+    
+    @Benchmark
+    public void drain() {
+        drainer.drain(0);
+    }
+    
+    // Serves the same batch on every poll and accepts every save
+    private static OutboxRepository outboxRepository(List<OutboxEvent> events) {
+        return (OutboxRepository) Proxy.newProxyInstance(
+                OutboxRepository.class.getClassLoader(),
+                new Class<?>[] {OutboxRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findUnprocessedEventsOrderByCreatedAt" -> events;
+                    case "save" -> args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+    
+    // Acknowledges every send right away without a broker
+    private static class AcknowledgingKafkaTemplate extends KafkaTemplate<String, String> {
+        
+        private static final CompletableFuture<SendResult<String, String>> ACKNOWLEDGED =
+                CompletableFuture.completedFuture(null);
+        
+        AcknowledgingKafkaTemplate() {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+        }
+        
+        @Override
+        public CompletableFuture<SendResult<String, String>> send(ProducerRecord<String, String> record) {
+            return ACKNOWLEDGED;
+        }
+    }
+    
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+        
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+        
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+        
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
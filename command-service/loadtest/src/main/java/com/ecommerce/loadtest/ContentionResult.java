@@ -0,0 +1,107 @@
+package com.ecommerce.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome counts, latencies and the oversell check of one contention scenario.
+ */
+class ContentionResult {
+    
+    enum Outcome {
+        SUCCESS, SOLD_OUT, OPTIMISTIC_LOCK_FAILURE, DEADLOCK, ERROR
+    }
+    
+    private final Histogram latenciesUs = new ConcurrentHistogram(3);
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, LongAdder> soldByProduct = new ConcurrentHashMap<>();
+    private final Map<String, Object> inventoryCheck = new LinkedHashMap<>();
+    private long oversellViolations;
+    private double seconds;
+    
+    ContentionResult() {
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+    
+    void record(Outcome outcome, long latencyNanos) {
+        latenciesUs.recordValue(Math.max(1, latencyNanos / 1000));
+        outcomes.get(outcome).increment();
+    }
+    
+    void recordError(Throwable error) {
+        errors.computeIfAbsent(error.getClass().getSimpleName(), e -> new LongAdder()).increment();
+    }
+    
+    void recordSold(Long productId, int quantity) {
+        soldByProduct.computeIfAbsent(productId, p -> new LongAdder()).add(quantity);
+    }
+    
+    long sold(Long productId) {
+        LongAdder sold = soldByProduct.get(productId);
+        return sold == null ? 0 : sold.sum();
+    }
+    
+    /**
+     * Records a product whose final quantity does not match its initial quantity minus the units of
+     * successful operations, or that went negative.
+     */
+    void recordInventory(Long productId, long expected, long actual) {
+        inventoryCheck.put(productId.toString(), Map.of("expected", expected, "actual", actual));
+        if (actual != expected || actual < 0) {
+            oversellViolations++;
+        }
+    }
+    
+    void setSeconds(double seconds) {
+        this.seconds = seconds;
+    }
+    
+    long count(Outcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+    
+    long getOversellViolations() {
+        return oversellViolations;
+    }
+    
+    double successesPerSecond() {
+        return seconds == 0 ? 0 : count(Outcome.SUCCESS) / seconds;
+    }
+    
+    double percentileMs(double percentile) {
+        return latenciesUs.getValueAtPercentile(percentile) / 1000.0;
+    }
+    
+    Map<String, Object> summary() {
+        Map<String, Long> byOutcome = new LinkedHashMap<>();
+        outcomes.forEach((outcome, count) -> byOutcome.put(outcome.name().toLowerCase(), count.sum()));
+        Map<String, Long> byError = new TreeMap<>();
+        errors.forEach((error, count) -> byError.put(error, count.sum()));
+        
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", percentileMs(50));
+        latency.put("p99", percentileMs(99));
+        latency.put("max", percentileMs(100));
+        
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("seconds", seconds);
+        summary.put("successesPerSecond", successesPerSecond());
+        summary.put("outcomes", byOutcome);
+        summary.put("errors", byError);
+        summary.put("latencyMs", latency);
+        summary.put("oversellViolations", oversellViolations);
+        summary.put("inventory", inventoryCheck);
+        return summary;
+    }
+}
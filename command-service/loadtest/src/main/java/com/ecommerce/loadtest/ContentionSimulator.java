@@ -0,0 +1,294 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.command.CommandServiceApplication;
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.dto.CreateOrderRequest;
+import com.ecommerce.command.dto.CreateProductRequest;
+import com.ecommerce.command.dto.OrderItemRequest;
+import com.ecommerce.command.exception.InsufficientInventoryException;
+import com.ecommerce.command.service.InventoryService;
+import com.ecommerce.command.service.OrderService;
+import com.ecommerce.command.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hammers {@code InventoryService.decrementInventory} and {@code OrderService.createOrder} on one
+ * and on a few products, once per inventory locking strategy, and reports throughput, optimistic
+ * lock failures, deadlocks and oversell violations of every scenario.
+ * <p>
+ * Each worker draws its products and quantities from a seeded {@link Random}, so repeated runs
+ * issue the same operations; only the interleaving of the threads differs.
+ */
+public class ContentionSimulator {
+    
+    private static final Logger log = LoggerFactory.getLogger(ContentionSimulator.class);
+    
+    private static final DateTimeFormatter RESULT_FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    
+    // PostgreSQL's SQLSTATE for a transaction aborted to break a deadlock
+    private static final String DEADLOCK_SQL_STATE = "40P01";
+    
+    // SKUs hold 50 characters, too few for the scenario name, so they number the scenarios instead
+    private static final AtomicInteger SCENARIO_NUMBER = new AtomicInteger();
+    
+    enum Target {
+        DECREMENT, ORDER
+    }
+    
+    record Scenario(String strategy, Target target, int products, int threads) {
+        
+        String name() {
+            return String.format("%s/%s/%d-products/%d-threads", strategy, target.name().toLowerCase(), products, threads);
+        }
+    }
+    
+    private final ConfigurableApplicationContext context;
+    private final Environment env;
+    private final String runId;
+    
+    private ContentionSimulator(ConfigurableApplicationContext context, String runId) {
+        this.context = context;
+        this.env = context.getEnvironment();
+        this.runId = runId;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        String[] serviceArgs = new String[args.length + 1];
+        serviceArgs[0] = "--spring.config.additional-location=classpath:contention.properties";
+        System.arraycopy(args, 0, serviceArgs, 1, args.length);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        List<String> summary = new ArrayList<>();
+        Environment settings = null;
+        ObjectMapper objectMapper = null;
+        
+        // The strategy is fixed when the service starts, so every strategy gets its own context
+        for (String strategy : startupEnvironment(args).getProperty("contention.strategies", String[].class)) {
+            String[] strategyArgs = Arrays.copyOf(serviceArgs, serviceArgs.length + 1);
+            strategyArgs[serviceArgs.length] = "--inventory.locking-strategy=" + strategy;
+            
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                    CommandServiceApplication.class, KafkaStandInConfig.class).run(strategyArgs)) {
+                ContentionSimulator simulator = new ContentionSimulator(context, runId);
+                settings = context.getEnvironment();
+                objectMapper = context.getBean(ObjectMapper.class);
+                for (Scenario scenario : simulator.scenarios(strategy)) {
+                    ContentionResult result = simulator.run(scenario);
+                    scenarios.put(scenario.name(), result.summary());
+                    summary.add(String.format("%-50s %10.1f %9d %9d %9d %9d %9d %9.2f",
+                            scenario.name(), result.successesPerSecond(),
+                            result.count(ContentionResult.Outcome.SUCCESS),
+                            result.count(ContentionResult.Outcome.OPTIMISTIC_LOCK_FAILURE),
+                            result.count(ContentionResult.Outcome.DEADLOCK),
+                            result.count(ContentionResult.Outcome.SOLD_OUT),
+                            result.getOversellViolations(), result.percentileMs(99)));
+                }
+            }
+        }
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("arguments", Arrays.asList(args));
+        report.put("settings", settings(settings));
+        report.put("scenarios", scenarios);
+        Path dir = Path.of(settings.getProperty("contention.results-dir", "target/contention"));
+        Files.createDirectories(dir);
+        Path file = dir.resolve("contention-" + RESULT_FILE_TIMESTAMP.format(Instant.now()) + ".json");
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        
+        System.out.printf("%n%-50s %10s %9s %9s %9s %9s %9s %9s%n",
+                "scenario", "ok/s", "ok", "opt-lock", "deadlock", "sold-out", "oversell", "p99 ms");
+        summary.forEach(System.out::println);
+        System.out.println();
+        log.info("Results written to {}", file.toAbsolutePath());
+    }
+    
+    private static Environment startupEnvironment(String[] args) throws IOException {
+        // Only the strategies are needed before a context exists: command line first, then the defaults
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        env.getPropertySources().addLast(new ResourcePropertySource("classpath:contention.properties"));
+        return env;
+    }
+    
+    private static Map<String, Object> settings(Environment env) {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        for (String key : List.of("strategies", "targets", "product-counts", "thread-counts", "operations-per-thread",
+                "max-items-per-order", "max-quantity", "initial-inventory", "seed")) {
+            settings.put(key, env.getProperty("contention." + key));
+        }
+        settings.put("sharding", env.getProperty("datasource.sharding.enabled", "false"));
+        return settings;
+    }
+    
+    private List<Scenario> scenarios(String strategy) {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (Target target : env.getProperty("contention.targets", Target[].class)) {
+            for (int products : env.getProperty("contention.product-counts", int[].class)) {
+                for (int threads : env.getProperty("contention.thread-counts", int[].class)) {
+                    scenarios.add(new Scenario(strategy, target, products, threads));
+                }
+            }
+        }
+        return scenarios;
+    }
+    
+    private ContentionResult run(Scenario scenario) throws InterruptedException {
+        int initialInventory = env.getProperty("contention.initial-inventory", Integer.class, 1000);
+        int operationsPerThread = env.getProperty("contention.operations-per-thread", Integer.class, 200);
+        long seed = env.getProperty("contention.seed", Long.class, 42L);
+        
+        // Fresh products per scenario, so every scenario starts from the same stock
+        List<Long> productIds = createProducts(scenario, initialInventory);
+        ContentionResult result = new ContentionResult();
+        
+        ExecutorService workers = Executors.newFixedThreadPool(scenario.threads());
+        CountDownLatch start = new CountDownLatch(1);
+        for (int worker = 0; worker < scenario.threads(); worker++) {
+            Random random = new Random(seed * 31 + worker);
+            workers.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < operationsPerThread; i++) {
+                    execute(scenario.target(), productIds, random, result);
+                }
+            });
+        }
+        
+        long startedAt = System.nanoTime();
+        start.countDown();
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        result.setSeconds((System.nanoTime() - startedAt) / 1e9);
+        
+        checkInventory(productIds, initialInventory, result);
+        log.info("{}: {} successful operations, {} oversell violations", scenario.name(),
+                result.count(ContentionResult.Outcome.SUCCESS), result.getOversellViolations());
+        return result;
+    }
+    
+    private void execute(Target target, List<Long> productIds, Random random, ContentionResult result) {
+        int maxQuantity = env.getProperty("contention.max-quantity", Integer.class, 2);
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        if (target == Target.DECREMENT) {
+            lines.put(productIds.get(random.nextInt(productIds.size())), 1 + random.nextInt(maxQuantity));
+        } else {
+            int items = 1 + random.nextInt(Math.min(productIds.size(),
+                    env.getProperty("contention.max-items-per-order", Integer.class, 3)));
+            while (lines.size() < items) {
+                lines.putIfAbsent(productIds.get(random.nextInt(productIds.size())), 1 + random.nextInt(maxQuantity));
+            }
+        }
+        
+        long start = System.nanoTime();
+        try {
+            if (target == Target.DECREMENT) {
+                Map.Entry<Long, Integer> line = lines.entrySet().iterator().next();
+                context.getBean(InventoryService.class).decrementInventory(line.getKey(), line.getValue());
+            } else {
+                context.getBean(OrderService.class).createOrder(order(lines));
+            }
+            result.record(ContentionResult.Outcome.SUCCESS, System.nanoTime() - start);
+            lines.forEach(result::recordSold);
+        } catch (RuntimeException e) {
+            ContentionResult.Outcome outcome = classify(e);
+            result.record(outcome, System.nanoTime() - start);
+            if (outcome == ContentionResult.Outcome.ERROR) {
+                result.recordError(e);
+            }
+        }
+    }
+    
+    private static ContentionResult.Outcome classify(RuntimeException e) {
+        if (e instanceof InsufficientInventoryException) {
+            return ContentionResult.Outcome.SOLD_OUT;
+        }
+        if (e instanceof OptimisticLockingFailureException) {
+            return ContentionResult.Outcome.OPTIMISTIC_LOCK_FAILURE;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && DEADLOCK_SQL_STATE.equals(sqlException.getSQLState())) {
+                return ContentionResult.Outcome.DEADLOCK;
+            }
+        }
+        if (e instanceof CannotAcquireLockException) {
+            return ContentionResult.Outcome.DEADLOCK;
+        }
+        return ContentionResult.Outcome.ERROR;
+    }
+    
+    private List<Long> createProducts(Scenario scenario, int initialInventory) {
+        ProductService productService = context.getBean(ProductService.class);
+        int scenarioNumber = SCENARIO_NUMBER.incrementAndGet();
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < scenario.products(); i++) {
+            CreateProductRequest request = new CreateProductRequest();
+            request.setSku(String.format("CONTENTION-%s-%d-%d", runId, scenarioNumber, i));
+            request.setName("Contention " + scenario.name() + " #" + i);
+            request.setPrice(new BigDecimal("9.99"));
+            request.setInitialInventory(initialInventory);
+            productIds.add(productService.createProduct(request).getId());
+        }
+        return productIds;
+    }
+    
+    private void checkInventory(List<Long> productIds, int initialInventory, ContentionResult result) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        ShardRouter shardRouter = context.getBean(ShardRouter.class);
+        for (Long productId : productIds) {
+            Integer quantity = ShardContext.call(shardRouter.shardFor(productId), () -> jdbcTemplate.queryForObject(
+                    "SELECT quantity FROM inventory WHERE product_id = ?", Integer.class, productId));
+            result.recordInventory(productId, initialInventory - result.sold(productId), quantity);
+        }
+    }
+    
+    private static CreateOrderRequest order(Map<Long, Integer> lines) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        lines.forEach((productId, quantity) -> {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(productId);
+            item.setQuantity(quantity);
+            request.getItems().add(item);
+        });
+        return request;
+    }
+}
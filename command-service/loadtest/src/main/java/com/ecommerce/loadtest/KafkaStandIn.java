@@ -0,0 +1,59 @@
+package com.ecommerce.loadtest;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * In-process replacement for the Kafka broker. Every send is acknowledged after a fixed delay,
+ * standing in for the broker round trip, counted per topic and handed to the consumers, if any.
+ */
+public class KafkaStandIn extends KafkaTemplate<String, String> {
+    
+    private final ConcurrentMap<String, LongAdder> recordsByTopic = new ConcurrentHashMap<>();
+    private final List<Consumer<ProducerRecord<String, String>>> consumers = new CopyOnWriteArrayList<>();
+    private final Executor acknowledger;
+    
+    public KafkaStandIn(long ackLatencyMs) {
+        super(new DefaultKafkaProducerFactory<>(Map.of()));
+        this.acknowledger = CompletableFuture.delayedExecutor(ackLatencyMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public CompletableFuture<SendResult<String, String>> send(ProducerRecord<String, String> record) {
+        recordsByTopic.computeIfAbsent(record.topic(), t -> new LongAdder()).increment();
+        return CompletableFuture.supplyAsync(() -> {
+            consumers.forEach(consumer -> consumer.accept(record));
+            return null;
+        }, acknowledger);
+    }
+    
+    // There is no broker to fetch metadata from, so the warm-up's producer step finds no partitions
+    @Override
+    public List<PartitionInfo> partitionsFor(String topic) {
+        return List.of();
+    }
+    
+    public void subscribe(Consumer<ProducerRecord<String, String>> consumer) {
+        consumers.add(consumer);
+    }
+    
+    public Map<String, Long> getRecordsByTopic() {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        recordsByTopic.forEach((topic, count) -> counts.put(topic, count.sum()));
+        return counts;
+    }
+}
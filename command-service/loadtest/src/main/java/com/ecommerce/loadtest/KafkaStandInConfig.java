@@ -0,0 +1,33 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Replaces the auto-configured {@code KafkaTemplate}, so the outbox relay publishes to the
+ * in-process stand-in instead of a broker, and serves the products it carries from a stub of the
+ * query service.
+ */
+@Configuration
+public class KafkaStandInConfig {
+    
+    @Bean
+    public KafkaStandIn kafkaTemplate(@Value("${load.kafka.ack-latency-ms:2}") long ackLatencyMs) {
+        return new KafkaStandIn(ackLatencyMs);
+    }
+    
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "load.query-stub.enabled", havingValue = "true", matchIfMissing = true)
+    public QueryServiceStub queryServiceStub(
+            KafkaStandIn kafkaStandIn,
+            ObjectMapper objectMapper,
+            @Value("${load.query-stub.port:18081}") int port,
+            @Value("${load.query-stub.apply-latency-ms:50}") long applyLatencyMs) throws IOException {
+        return new QueryServiceStub(kafkaStandIn, objectMapper, port, applyLatencyMs);
+    }
+}
@@ -0,0 +1,208 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop workload against the command API: every worker thread picks an operation from the
+ * weighted mix, waits for the response and immediately issues the next request.
+ */
+class LoadGenerator {
+    
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+    
+    enum Operation {
+        ORDER, CATALOG_EDIT, TAG_CHURN, REPLENISHMENT
+    }
+    
+    private final LoadTestSettings settings;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final List<Long> productIds = new ArrayList<>();
+    
+    // Flipped once the warmup is over; only requests completed afterwards are recorded
+    private volatile boolean recording;
+    
+    LoadGenerator(LoadTestSettings settings, String baseUrl, ObjectMapper objectMapper) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(4))
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+    
+    /**
+     * Creates the catalog the workload runs against.
+     */
+    void createCatalog() throws IOException, InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < settings.products(); i++) {
+            Map<String, Object> product = Map.of(
+                    "sku", "LOAD-" + runId + "-" + i,
+                    "name", "Load test product " + i,
+                    "price", randomPrice(),
+                    "initialInventory", settings.initialInventory(),
+                    "tags", List.of(randomTag()));
+            HttpResponse<String> response = send("POST", "/products", product);
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Could not create product " + i + ": " + response.body());
+            }
+            JsonNode body = objectMapper.readTree(response.body());
+            productIds.add(body.get("id").asLong());
+        }
+        log.info("Created {} products", productIds.size());
+    }
+    
+    /**
+     * Runs the workload for the warmup plus the measured duration and blocks until every worker
+     * has stopped.
+     */
+    void run(Runnable onWarmupComplete) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(settings.threads());
+        long warmupEnds = System.nanoTime() + settings.warmup().toNanos();
+        long runEnds = warmupEnds + settings.duration().toNanos();
+        for (int i = 0; i < settings.threads(); i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < runEnds) {
+                    execute(pickOperation());
+                }
+            });
+        }
+        
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnds - System.nanoTime()));
+        recording = true;
+        onWarmupComplete.run();
+        
+        workers.shutdown();
+        if (!workers.awaitTermination(settings.duration().toMillis() + 30_000, TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+        recording = false;
+    }
+    
+    Map<Operation, OperationStats> getStats() {
+        return stats;
+    }
+    
+    private void execute(Operation operation) {
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = switch (operation) {
+                case ORDER -> placeOrder();
+                case CATALOG_EDIT -> editProduct();
+                case TAG_CHURN -> churnTags();
+                case REPLENISHMENT -> replenish();
+            };
+        } catch (IOException e) {
+            status = OperationStats.NO_RESPONSE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (recording) {
+            stats.get(operation).record(status, System.nanoTime() - start);
+        }
+    }
+    
+    private int placeOrder() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int items = random.nextInt(1, 4);
+        List<Map<String, Object>> orderItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            orderItems.add(Map.of("productId", orderedProduct(), "quantity", random.nextInt(1, 4)));
+        }
+        return send("POST", "/orders", Map.of("items", orderItems)).statusCode();
+    }
+    
+    private int editProduct() throws IOException, InterruptedException {
+        Long productId = anyProduct();
+        Map<String, Object> update = Map.of(
+                "name", "Load test product " + productId + " rev " + ThreadLocalRandom.current().nextInt(1000),
+                "price", randomPrice());
+        return send("PUT", "/products/" + productId, update).statusCode();
+    }
+    
+    private int churnTags() throws IOException, InterruptedException {
+        // Alternate between replacing and merging tag sets
+        String method = ThreadLocalRandom.current().nextBoolean() ? "PUT" : "PATCH";
+        Map<String, Object> tags = Map.of("tags", List.of(randomTag(), randomTag()));
+        return send(method, "/products/" + anyProduct() + "/tags", tags).statusCode();
+    }
+    
+    private int replenish() throws IOException, InterruptedException {
+        // Replenishment is concentrated on the hot products, which are the ones running dry
+        Map<String, Object> change = Map.of(
+                "quantityChange", ThreadLocalRandom.current().nextInt(50, 500),
+                "reason", "load test replenishment");
+        return send("PUT", "/products/" + orderedProduct() + "/inventory", change).statusCode();
+    }
+    
+    private HttpResponse<String> send(String method, String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private Operation pickOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(settings.totalWeight());
+        for (Operation operation : Operation.values()) {
+            roll -= settings.weight(operation);
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return Operation.ORDER;
+    }
+    
+    private Long orderedProduct() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int hotProducts = Math.min(settings.hotProducts(), productIds.size());
+        if (hotProducts > 0 && random.nextDouble() < settings.hotOrderShare()) {
+            return productIds.get(random.nextInt(hotProducts));
+        }
+        return anyProduct();
+    }
+    
+    private Long anyProduct() {
+        return productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+    }
+    
+    private Map<String, String> randomTag() {
+        int tag = ThreadLocalRandom.current().nextInt(settings.tags());
+        return Map.of("name", "load-tag-" + tag, "value", "v" + (tag % 5));
+    }
+    
+    private static BigDecimal randomPrice() {
+        return BigDecimal.valueOf(ThreadLocalRandom.current().nextDouble(1, 500)).setScale(2, RoundingMode.HALF_UP);
+    }
+}
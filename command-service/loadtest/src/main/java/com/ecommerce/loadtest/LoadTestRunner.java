@@ -0,0 +1,156 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.command.CommandServiceApplication;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the command service in-process against the configured Postgres, with Kafka replaced by
+ * {@link KafkaStandIn}, drives the mixed workload over HTTP and writes a JSON report of the run.
+ */
+public class LoadTestRunner {
+    
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+    
+    private static final DateTimeFormatter RESULT_FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    
+    public static void main(String[] args) throws Exception {
+        // The load test defaults override application.properties, the command line overrides both
+        String[] serviceArgs = new String[args.length + 1];
+        serviceArgs[0] = "--spring.config.additional-location=classpath:loadtest.properties";
+        System.arraycopy(args, 0, serviceArgs, 1, args.length);
+        
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                CommandServiceApplication.class, KafkaStandInConfig.class).run(serviceArgs)) {
+            Environment env = context.getEnvironment();
+            LoadTestSettings settings = LoadTestSettings.from(env);
+            String baseUrl = "http://localhost:" + env.getProperty("local.server.port")
+                    + env.getProperty("server.servlet.context-path", "");
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            
+            LoadGenerator generator = new LoadGenerator(settings, baseUrl, objectMapper);
+            generator.createCatalog();
+            
+            OutboxLagSampler sampler = new OutboxLagSampler(
+                    context.getBean(JdbcTemplate.class), context.getBean(ShardRouter.class));
+            ScheduledExecutorService sampling = Executors.newSingleThreadScheduledExecutor();
+            long[] measuredFrom = new long[1];
+            
+            log.info("Running {} threads for {} after a {} warmup", settings.threads(), settings.duration(), settings.warmup());
+            generator.run(() -> {
+                measuredFrom[0] = System.nanoTime();
+                sampling.scheduleAtFixedRate(() -> sampleQuietly(sampler, measuredFrom[0]),
+                        0, settings.outboxSampleIntervalMs(), TimeUnit.MILLISECONDS);
+            });
+            double seconds = (System.nanoTime() - measuredFrom[0]) / 1e9;
+            sampling.shutdownNow();
+            
+            Map<String, Object> report = report(settings, generator, sampler, context.getBean(KafkaStandIn.class), seconds, args);
+            report.put("canary", canary(context.getBean(MeterRegistry.class)));
+            Path resultFile = write(report, settings.resultsDir(), objectMapper);
+            printSummary(generator, sampler, seconds);
+            log.info("Results written to {}", resultFile.toAbsolutePath());
+        }
+    }
+    
+    private static void sampleQuietly(OutboxLagSampler sampler, long measuredFrom) {
+        try {
+            sampler.sample((System.nanoTime() - measuredFrom) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Could not sample the outbox: {}", e.getMessage());
+        }
+    }
+    
+    private static Map<String, Object> report(LoadTestSettings settings, LoadGenerator generator,
+            OutboxLagSampler sampler, KafkaStandIn kafka, double seconds, String[] args) {
+        long requests = 0;
+        long conflicts = 0;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Map.Entry<LoadGenerator.Operation, OperationStats> entry : generator.getStats().entrySet()) {
+            requests += entry.getValue().count();
+            conflicts += entry.getValue().countOf(409);
+            operations.put(entry.getKey().name().toLowerCase(), entry.getValue().summary(seconds));
+        }
+        
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("requests", requests);
+        totals.put("throughputPerSecond", requests / seconds);
+        totals.put("conflictRate", OperationStats.rate(conflicts, requests));
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("arguments", Arrays.asList(args));
+        report.put("settings", settings);
+        report.put("measuredSeconds", seconds);
+        report.put("totals", totals);
+        report.put("operations", operations);
+        report.put("outbox", sampler.summary());
+        report.put("publishedByTopic", kafka.getRecordsByTopic());
+        return report;
+    }
+    
+    private static Map<String, Object> canary(MeterRegistry meterRegistry) {
+        Map<String, Object> lag = new LinkedHashMap<>();
+        for (Timer timer : meterRegistry.find("consistency.canary.lag").timers()) {
+            Map<String, Object> stage = new LinkedHashMap<>();
+            stage.put("count", timer.count());
+            stage.put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+            stage.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+            lag.put(timer.getId().getTag("stage"), stage);
+        }
+        Map<String, Long> probes = new LinkedHashMap<>();
+        for (Counter counter : meterRegistry.find("consistency.canary.probes").counters()) {
+            probes.merge(counter.getId().getTag("outcome"), (long) counter.count(), Long::sum);
+        }
+        Map<String, Object> canary = new LinkedHashMap<>();
+        canary.put("lag", lag);
+        canary.put("probes", probes);
+        return canary;
+    }
+    
+    private static Path write(Map<String, Object> report, String resultsDir, ObjectMapper objectMapper) throws Exception {
+        Path dir = Path.of(resultsDir);
+        Files.createDirectories(dir);
+        Path file = dir.resolve("loadtest-" + RESULT_FILE_TIMESTAMP.format(Instant.now()) + ".json");
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+    
+    private static void printSummary(LoadGenerator generator, OutboxLagSampler sampler, double seconds) {
+        System.out.printf("%n%-14s %10s %10s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "409 rate", "p50 ms", "p99 ms", "max ms");
+        for (Map.Entry<LoadGenerator.Operation, OperationStats> entry : generator.getStats().entrySet()) {
+            OperationStats stats = entry.getValue();
+            System.out.printf("%-14s %10d %10.1f %8.2f%% %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(), stats.count(), stats.count() / seconds,
+                    OperationStats.rate(stats.countOf(409), stats.count()) * 100,
+                    stats.percentileMs(50), stats.percentileMs(99), stats.percentileMs(100));
+        }
+        Map<String, Object> outbox = sampler.summary();
+        System.out.printf("outbox: max backlog %s, max oldest event age %s ms%n%n",
+                outbox.get("maxBacklog"), outbox.get("maxOldestAgeMs"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.loadtest;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * The {@code load.*} properties of a run, read from the booted service's environment.
+ */
+record LoadTestSettings(
+        Duration duration,
+        Duration warmup,
+        int threads,
+        String resultsDir,
+        int products,
+        int initialInventory,
+        int hotProducts,
+        double hotOrderShare,
+        int tags,
+        int orderWeight,
+        int catalogEditWeight,
+        int tagChurnWeight,
+        int replenishmentWeight,
+        long outboxSampleIntervalMs) {
+    
+    static LoadTestSettings from(Environment env) {
+        return new LoadTestSettings(
+                env.getProperty("load.duration", Duration.class, Duration.ofSeconds(60)),
+                env.getProperty("load.warmup", Duration.class, Duration.ofSeconds(10)),
+                env.getProperty("load.threads", Integer.class, 32),
+                env.getProperty("load.results-dir", "target/loadtest"),
+                env.getProperty("load.products", Integer.class, 200),
+                env.getProperty("load.initial-inventory", Integer.class, 5000),
+                env.getProperty("load.hot-products", Integer.class, 5),
+                env.getProperty("load.hot-order-share", Double.class, 0.8),
+                env.getProperty("load.tags", Integer.class, 50),
+                env.getProperty("load.mix.orders", Integer.class, 60),
+                env.getProperty("load.mix.catalog-edits", Integer.class, 15),
+                env.getProperty("load.mix.tag-churn", Integer.class, 15),
+                env.getProperty("load.mix.replenishment", Integer.class, 10),
+                env.getProperty("load.outbox.sample-interval-ms", Long.class, 500L));
+    }
+    
+    int weight(LoadGenerator.Operation operation) {
+        return switch (operation) {
+            case ORDER -> orderWeight;
+            case CATALOG_EDIT -> catalogEditWeight;
+            case TAG_CHURN -> tagChurnWeight;
+            case REPLENISHMENT -> replenishmentWeight;
+        };
+    }
+    
+    int totalWeight() {
+        return orderWeight + catalogEditWeight + tagChurnWeight + replenishmentWeight;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and response statuses of one operation of the workload mix.
+ */
+class OperationStats {
+    
+    // Status recorded for requests that failed without a response
+    static final int NO_RESPONSE = 0;
+    
+    private final Histogram latenciesUs = new ConcurrentHistogram(3);
+    private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    
+    void record(int status, long latencyNanos) {
+        latenciesUs.recordValue(Math.max(1, latencyNanos / 1000));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+    
+    long count() {
+        return latenciesUs.getTotalCount();
+    }
+    
+    long countOf(int status) {
+        LongAdder count = statuses.get(status);
+        return count == null ? 0 : count.sum();
+    }
+    
+    long countBetween(int fromStatus, int toStatus) {
+        long count = 0;
+        for (Map.Entry<Integer, LongAdder> status : statuses.entrySet()) {
+            if (status.getKey() >= fromStatus && status.getKey() <= toStatus) {
+                count += status.getValue().sum();
+            }
+        }
+        return count;
+    }
+    
+    Map<String, Object> summary(double seconds) {
+        long count = count();
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", percentileMs(50));
+        latency.put("p90", percentileMs(90));
+        latency.put("p99", percentileMs(99));
+        latency.put("p999", percentileMs(99.9));
+        latency.put("max", latenciesUs.getMaxValue() / 1000.0);
+        latency.put("mean", latenciesUs.getMean() / 1000.0);
+        
+        Map<String, Long> byStatus = new TreeMap<>();
+        statuses.forEach((status, statusCount) ->
+                byStatus.put(status == NO_RESPONSE ? "none" : status.toString(), statusCount.sum()));
+        
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", count);
+        summary.put("throughputPerSecond", count / seconds);
+        summary.put("successRate", rate(countBetween(200, 299), count));
+        summary.put("conflictRate", rate(countOf(409), count));
+        summary.put("latencyMs", latency);
+        summary.put("statuses", byStatus);
+        return summary;
+    }
+    
+    double percentileMs(double percentile) {
+        return latenciesUs.getValueAtPercentile(percentile) / 1000.0;
+    }
+    
+    static double rate(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+}
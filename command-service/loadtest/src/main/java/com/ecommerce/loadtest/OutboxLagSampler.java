@@ -0,0 +1,63 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardRouter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically samples the outbox: how many events are waiting and how old the oldest one is,
+ * summed (backlog) and maxed (age) over every shard.
+ */
+class OutboxLagSampler {
+    
+    private static final String SAMPLE_SQL =
+            "SELECT count(*), coalesce(extract(epoch FROM now() - min(created_at)) * 1000, 0) " +
+            "FROM outbox_events WHERE processed = false";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final List<long[]> samples = new ArrayList<>();
+    
+    OutboxLagSampler(JdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+    }
+    
+    synchronized void sample(long elapsedMs) {
+        long backlog = 0;
+        long oldestAgeMs = 0;
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            long[] shardSample = ShardContext.call(shard, () -> jdbcTemplate.queryForObject(SAMPLE_SQL,
+                    (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}));
+            backlog += shardSample[0];
+            oldestAgeMs = Math.max(oldestAgeMs, shardSample[1]);
+        }
+        samples.add(new long[] {elapsedMs, backlog, oldestAgeMs});
+    }
+    
+    synchronized Map<String, Object> summary() {
+        long maxBacklog = 0;
+        long maxAgeMs = 0;
+        long totalAgeMs = 0;
+        List<Map<String, Long>> series = new ArrayList<>();
+        for (long[] sample : samples) {
+            maxBacklog = Math.max(maxBacklog, sample[1]);
+            maxAgeMs = Math.max(maxAgeMs, sample[2]);
+            totalAgeMs += sample[2];
+            series.add(Map.of("elapsedMs", sample[0], "backlog", sample[1], "oldestAgeMs", sample[2]));
+        }
+        
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("samples", samples.size());
+        summary.put("maxBacklog", maxBacklog);
+        summary.put("maxOldestAgeMs", maxAgeMs);
+        summary.put("meanOldestAgeMs", samples.isEmpty() ? 0 : (double) totalAgeMs / samples.size());
+        summary.put("series", series);
+        return summary;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stands in for the query service in local runs. Product events taken from {@link KafkaStandIn}
+ * are applied after {@code load.query-stub.apply-latency-ms}, like a consumer projecting them, and
+ * products are served under {@code /api/queries/products/{productId}}, so the consistency canary
+ * can measure its query stage without the real read side.
+ */
+public class QueryServiceStub {
+    
+    private static final Logger log = LoggerFactory.getLogger(QueryServiceStub.class);
+    
+    private static final String PRODUCTS_PATH = "/api/queries/products/";
+    
+    private final ConcurrentMap<String, ProductView> products = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final long applyLatencyMs;
+    private final ScheduledExecutorService projector;
+    private final HttpServer server;
+    
+    public QueryServiceStub(KafkaStandIn kafka, ObjectMapper objectMapper, int port, long applyLatencyMs) throws IOException {
+        this.objectMapper = objectMapper;
+        this.applyLatencyMs = applyLatencyMs;
+        this.projector = Executors.newSingleThreadScheduledExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.server.createContext(PRODUCTS_PATH, this::handle);
+        kafka.subscribe(this::consume);
+    }
+    
+    public void start() {
+        server.start();
+        log.info("Query service stub listening on port {}", server.getAddress().getPort());
+    }
+    
+    public void stop() {
+        server.stop(0);
+        projector.shutdownNow();
+    }
+    
+    private void consume(ProducerRecord<String, String> record) {
+        if ("products".equals(record.topic()) && record.key() != null) {
+            projector.schedule(() -> apply(record.key(), record.value()), applyLatencyMs, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private void apply(String productId, String payload) {
+        try {
+            JsonNode event = objectMapper.readTree(payload);
+            products.merge(productId, new ProductView(event), ProductView::update);
+        } catch (IOException e) {
+            log.warn("Could not apply product event: {}", e.getMessage());
+        }
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        String productId = exchange.getRequestURI().getPath().substring(PRODUCTS_PATH.length());
+        ProductView product = products.get(productId);
+        byte[] body = product == null
+                ? "{\"success\":false}".getBytes(StandardCharsets.UTF_8)
+                : objectMapper.writeValueAsBytes(Map.of("success", true, "data", product.fields()));
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(product == null ? 404 : 200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    
+    /**
+     * The latest value of every field seen in a product's events, snapshots and deltas alike.
+     */
+    private record ProductView(Map<String, JsonNode> fields) {
+        
+        ProductView(JsonNode event) {
+            this(new ConcurrentHashMap<>());
+            event.fields().forEachRemaining(field -> fields.put(field.getKey(), field.getValue()));
+        }
+        
+        ProductView update(ProductView event) {
+            fields.putAll(event.fields());
+            return this;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a small contention simulation for every locking strategy against a PostgreSQL container
+ * and fails when a scenario oversells or fails with anything but a sold-out, optimistic lock or
+ * deadlock rejection. The stock is small enough for most scenarios to sell out, which is where an
+ * unguarded decrement would oversell.
+ */
+@Testcontainers
+class ContentionSimulatorIT {
+    
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:14-alpine"))
+                    .withDatabaseName("ecommerce");
+    
+    @Test
+    void noStrategyOversells(@TempDir Path resultsDir) throws Exception {
+        ContentionSimulator.main(new String[] {
+                "--spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                "--spring.datasource.username=" + POSTGRES.getUsername(),
+                "--spring.datasource.password=" + POSTGRES.getPassword(),
+                "--spring.r2dbc.url=" + String.format("r2dbc:postgresql://%s:%d/%s", POSTGRES.getHost(),
+                        POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT), POSTGRES.getDatabaseName()),
+                "--spring.r2dbc.username=" + POSTGRES.getUsername(),
+                "--spring.r2dbc.password=" + POSTGRES.getPassword(),
+                "--warmup.enabled=false",
+                "--contention.product-counts=1,4",
+                "--contention.thread-counts=8",
+                "--contention.operations-per-thread=25",
+                "--contention.initial-inventory=100",
+                "--contention.results-dir=" + resultsDir});
+        
+        JsonNode scenarios = readReport(resultsDir).path("scenarios");
+        // 3 strategies x 2 targets x 2 product counts
+        assertThat(scenarios.size()).isEqualTo(12);
+        for (Iterator<Map.Entry<String, JsonNode>> it = scenarios.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> scenario = it.next();
+            JsonNode result = scenario.getValue();
+            assertThat(result.path("oversellViolations").asLong())
+                    .as("%s oversold: %s", scenario.getKey(), result.path("inventory"))
+                    .isZero();
+            assertThat(result.path("outcomes").path("error").asLong())
+                    .as("%s failed: %s", scenario.getKey(), result.path("errors"))
+                    .isZero();
+            assertThat(result.path("outcomes").path("success").asLong())
+                    .as("%s successes", scenario.getKey())
+                    .isPositive();
+        }
+    }
+    
+    private static JsonNode readReport(Path resultsDir) throws Exception {
+        try (Stream<Path> files = Files.list(resultsDir)) {
+            List<Path> reports = files.toList();
+            assertThat(reports).hasSize(1);
+            return new ObjectMapper().readTree(reports.get(0).toFile());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+#!/bin/bash
+# Measures the per-request cost of the production logging pipeline.
+#
+# Boots the packaged command service three times: with the default development logging,
+# with the `prod` profile (async JSON, sampled INFO logs) and with logging switched off.
+# Each run drives the same order load with `hey`. The overhead of the prod profile is its
+# mean latency minus the mean latency with logging off; the script fails when it exceeds
+# the budget. Low concurrency keeps queueing out of the latency figures.
+#
+# Requirements: hey (https://github.com/rakyll/hey), a running PostgreSQL, Kafka and
+# Schema Registry as described in the README.
+#
+# Usage: scripts/benchmark-logging.sh [budget_us] [concurrency] [duration]
+
+set -euo pipefail
+
+BUDGET_US=${1:-50}
+CONCURRENCY=${2:-4}
+DURATION=${3:-60s}
+JAR=${JAR:-target/command-service-0.0.1-SNAPSHOT.jar}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAVA_OPTS=${JAVA_OPTS:-"-Xms256m -Xmx512m -XX:+UseCompressedOops -Xss256k"}
+BASE_URL=http://localhost:8080/api/commands
+MANAGEMENT_URL=http://localhost:8091/actuator
+RESULTS=${RESULTS:-target/benchmark-logging.csv}
+
+cd "$(dirname "$0")/.."
+
+if [ ! -f "$JAR" ]; then
+    ./mvnw -q package -DskipTests
+fi
+
+wait_until_up() {
+    for _ in $(seq 1 120); do
+        if curl -sf "$MANAGEMENT_URL/health" > /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "Command service did not become healthy" >&2
+    return 1
+}
+
+run_mode() {
+    local mode=$1
+    shift
+
+    # Application output goes to a file so terminal rendering does not skew the numbers
+    $JAVA $JAVA_OPTS -jar "$JAR" "$@" > "target/benchmark-logging-$mode.log" 2>&1 &
+    local pid=$!
+    wait_until_up
+
+    # Seed a product with enough inventory for the whole run
+    local sku="LOGBENCH-$mode-$(date +%s)"
+    local product_id
+    product_id=$(curl -sf -X POST "$BASE_URL/products" -H "Content-Type: application/json" \
+        -d "{\"sku\":\"$sku\",\"name\":\"Benchmark\",\"price\":9.99,\"initialInventory\":100000000}" \
+        | sed -E 's/.*"id":([0-9]+).*/\1/')
+
+    # Warm up before measuring so JIT compilation is not attributed to logging
+    hey -z 15s -c "$CONCURRENCY" -m POST -H "Content-Type: application/json" \
+        -d "{\"items\":[{\"productId\":$product_id,\"quantity\":1}]}" "$BASE_URL/orders" > /dev/null
+
+    local output
+    output=$(hey -z "$DURATION" -c "$CONCURRENCY" -m POST -H "Content-Type: application/json" \
+        -d "{\"items\":[{\"productId\":$product_id,\"quantity\":1}]}" "$BASE_URL/orders")
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+
+    local rps avg p99 log_bytes
+    rps=$(echo "$output" | awk '/Requests\/sec/ {print $2}')
+    avg=$(echo "$output" | awk '/Average:/ {print $2; exit}')
+    p99=$(echo "$output" | awk '/99% in/ {print $3}')
+    log_bytes=$(wc -c < "target/benchmark-logging-$mode.log")
+    echo "$mode,$CONCURRENCY,$DURATION,$rps,$avg,$p99,$log_bytes" >> "$RESULTS"
+}
+
+mkdir -p target
+echo "mode,concurrency,duration,requests_per_sec,avg_sec,p99_sec,log_bytes" > "$RESULTS"
+run_mode dev
+run_mode prod --spring.profiles.active=prod
+run_mode off --spring.profiles.active=prod --logging.level.root=OFF --logging.level.com.ecommerce.command=OFF
+column -s, -t < "$RESULTS"
+
+overhead_us=$(awk -F, '$1 == "prod" {prod = $5} $1 == "off" {off = $5} END {printf "%.1f", (prod - off) * 1000000}' "$RESULTS")
+echo "Logging overhead per request: ${overhead_us}us (budget ${BUDGET_US}us)"
+if awk -v o="$overhead_us" -v b="$BUDGET_US" 'BEGIN {exit !(o > b)}'; then
+    echo "Logging overhead exceeds the budget" >&2
+    exit 1
+fi
@@ -0,0 +1,96 @@
+#!/bin/bash
+# Side-by-side benchmark of platform-thread and virtual-thread request handling.
+#
+# Boots the packaged command service twice with the t2.micro heap settings, once per
+# threading mode, drives the same order load with `hey`, and records throughput,
+# latency and peak resident memory of each run to a CSV file.
+#
+# Requirements: JDK 21 (JAVA_HOME), hey (https://github.com/rakyll/hey), a running
+# PostgreSQL, Kafka and Schema Registry as described in the README.
+#
+# Usage: scripts/benchmark-threads.sh [concurrency] [duration]
+
+set -euo pipefail
+
+CONCURRENCY=${1:-500}
+DURATION=${2:-60s}
+JAR=${JAR:-target/command-service-0.0.1-SNAPSHOT.jar}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAVA_OPTS=${JAVA_OPTS:-"-Xms256m -Xmx512m -XX:+UseCompressedOops -Xss256k"}
+BASE_URL=http://localhost:8080/api/commands
+MANAGEMENT_URL=http://localhost:8091/actuator
+RESULTS=${RESULTS:-target/benchmark-threads.csv}
+
+cd "$(dirname "$0")/.."
+
+if [ ! -f "$JAR" ]; then
+    ./mvnw -q package -DskipTests
+fi
+
+wait_until_up() {
+    for _ in $(seq 1 120); do
+        if curl -sf "$MANAGEMENT_URL/health" > /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "Command service did not become healthy" >&2
+    return 1
+}
+
+sample_rss() {
+    local pid=$1
+    local peak=0
+    while kill -0 "$pid" 2> /dev/null; do
+        local rss
+        rss=$(ps -o rss= -p "$pid" 2> /dev/null | tr -d ' ' || echo 0)
+        if [ -n "$rss" ] && [ "$rss" -gt "$peak" ]; then
+            peak=$rss
+            echo "$peak" > "$RSS_FILE"
+        fi
+        sleep 0.5
+    done
+}
+
+run_mode() {
+    local mode=$1
+    local virtual=$2
+
+    $JAVA $JAVA_OPTS -jar "$JAR" --threads.virtual.enabled="$virtual" > "target/benchmark-$mode.log" 2>&1 &
+    local pid=$!
+    wait_until_up
+
+    # Seed a product with enough inventory for the whole run
+    local sku="BENCH-$mode-$(date +%s)"
+    local product_id
+    product_id=$(curl -sf -X POST "$BASE_URL/products" -H "Content-Type: application/json" \
+        -d "{\"sku\":\"$sku\",\"name\":\"Benchmark\",\"price\":9.99,\"initialInventory\":100000000}" \
+        | sed -E 's/.*"id":([0-9]+).*/\1/')
+
+    RSS_FILE=$(mktemp)
+    echo 0 > "$RSS_FILE"
+    sample_rss "$pid" &
+    local sampler=$!
+
+    local output
+    output=$(hey -z "$DURATION" -c "$CONCURRENCY" -m POST -H "Content-Type: application/json" \
+        -d "{\"items\":[{\"productId\":$product_id,\"quantity\":1}]}" "$BASE_URL/orders")
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    wait "$sampler" 2> /dev/null || true
+
+    local rps p50 p99 errors
+    rps=$(echo "$output" | awk '/Requests\/sec/ {print $2}')
+    p50=$(echo "$output" | awk '/50% in/ {print $3}')
+    p99=$(echo "$output" | awk '/99% in/ {print $3}')
+    errors=$(echo "$output" | awk '/\[[0-9]+\]/ && !/\[201\]/ {sum += $2} END {print sum + 0}')
+    echo "$mode,$CONCURRENCY,$DURATION,$rps,$p50,$p99,$errors,$(cat "$RSS_FILE")" >> "$RESULTS"
+    rm -f "$RSS_FILE"
+}
+
+mkdir -p target
+echo "mode,concurrency,duration,requests_per_sec,p50_sec,p99_sec,non_201_responses,peak_rss_kb" > "$RESULTS"
+run_mode platform false
+run_mode virtual true
+column -s, -t < "$RESULTS"
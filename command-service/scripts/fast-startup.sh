@@ -0,0 +1,115 @@
+#!/bin/bash
+# Builds the AppCDS archive of the startup-optimized runtime and checks its startup cost.
+#
+# Runs against target/fast-startup, which `./mvnw -Pfast-startup package` fills with the
+# AOT-processed application jar and its libraries. Both modes boot the service with the
+# fast-startup profile and the t2.micro JVM settings:
+#
+#   archive  A training run: waits until the service is ready, stops it, and lets the JVM
+#            write every class loaded on the way to command-service.jsa.
+#   check    Boots from the archive, measures the time until the readiness probe reports UP
+#            and the resident memory at that point, and fails when either exceeds its budget.
+#            Each run is appended to target/startup.csv.
+#
+# The archive is only valid for the same JDK and the same jar paths, so the service must be
+# started from target/fast-startup (or a copy of it) with the relative jar path used here.
+#
+# Requirements: a running PostgreSQL, Kafka and Schema Registry as described in the README.
+#
+# Usage: scripts/fast-startup.sh archive|check [max_ready_seconds] [max_rss_mb]
+
+set -euo pipefail
+
+MODE=${1:?Usage: scripts/fast-startup.sh archive|check [max_ready_seconds] [max_rss_mb]}
+MAX_READY_SECONDS=${2:-45}
+MAX_RSS_MB=${3:-400}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAVA_OPTS=${JAVA_OPTS:-"-XX:+UseSerialGC -Xms128m -Xmx384m -Xss256k -XX:ReservedCodeCacheSize=64m -XX:MaxMetaspaceSize=192m"}
+READY_URL=http://localhost:8091/actuator/health/readiness
+ARCHIVE=command-service.jsa
+RESULTS=../startup.csv
+
+cd "$(dirname "$0")/../target/fast-startup"
+JAR=$(ls command-service-*-fast-startup.jar)
+
+case "$MODE" in
+    archive)
+        rm -f "$ARCHIVE"
+        CDS_OPTS="-XX:ArchiveClassesAtExit=$ARCHIVE"
+        ;;
+    check)
+        if [ ! -f "$ARCHIVE" ]; then
+            echo "No $ARCHIVE, run the archive mode first" >&2
+            exit 1
+        fi
+        CDS_OPTS="-XX:SharedArchiveFile=$ARCHIVE -Xlog:class+load=info:file=class-load.log"
+        ;;
+    *)
+        echo "Unknown mode: $MODE" >&2
+        exit 1
+        ;;
+esac
+
+START=$(date +%s%N)
+# shellcheck disable=SC2086
+$JAVA $JAVA_OPTS $CDS_OPTS -Dspring.aot.enabled=true -jar "$JAR" \
+    --spring.profiles.active=fast-startup > "$MODE.log" 2>&1 &
+PID=$!
+trap 'kill "$PID" 2> /dev/null || true' EXIT
+
+READY=""
+for _ in $(seq 1 1200); do
+    if curl -sf "$READY_URL" > /dev/null; then
+        READY=$(date +%s%N)
+        break
+    fi
+    if ! kill -0 "$PID" 2> /dev/null; then
+        break
+    fi
+    sleep 0.1
+done
+
+if [ -z "$READY" ]; then
+    echo "Command service did not become ready, see target/fast-startup/$MODE.log" >&2
+    exit 1
+fi
+
+READY_MS=$(( (READY - START) / 1000000 ))
+RSS_MB=$(( $(ps -o rss= -p "$PID" | tr -d ' ') / 1024 ))
+
+# Stopping normally makes the JVM write the archive in archive mode
+kill "$PID"
+wait "$PID" 2> /dev/null || true
+trap - EXIT
+
+if [ "$MODE" = archive ]; then
+    if [ ! -f "$ARCHIVE" ]; then
+        echo "The JVM did not write $ARCHIVE, see target/fast-startup/$MODE.log" >&2
+        exit 1
+    fi
+    echo "Training run ready in ${READY_MS} ms, archive written to target/fast-startup/$ARCHIVE"
+    exit 0
+fi
+
+LOADED=$(grep -c 'source:' class-load.log || true)
+SHARED=$(grep -c 'source: shared objects file' class-load.log || true)
+SHARED_PERCENT=$(( LOADED > 0 ? SHARED * 100 / LOADED : 0 ))
+
+if [ ! -f "$RESULTS" ]; then
+    echo "timestamp,ready_ms,rss_mb,classes_loaded,classes_shared_percent" > "$RESULTS"
+fi
+echo "$(date -u +%Y-%m-%dT%H:%M:%SZ),$READY_MS,$RSS_MB,$LOADED,$SHARED_PERCENT" >> "$RESULTS"
+
+echo "Ready in ${READY_MS} ms (budget $((MAX_READY_SECONDS * 1000)) ms), RSS ${RSS_MB} MB (budget ${MAX_RSS_MB} MB)"
+echo "${SHARED_PERCENT}% of ${LOADED} classes loaded from the CDS archive"
+
+FAILED=0
+if [ "$READY_MS" -gt $((MAX_READY_SECONDS * 1000)) ]; then
+    echo "Time to ready exceeds its budget" >&2
+    FAILED=1
+fi
+if [ "$RSS_MB" -gt "$MAX_RSS_MB" ]; then
+    echo "Resident memory exceeds its budget" >&2
+    FAILED=1
+fi
+exit $FAILED
@@ -0,0 +1,60 @@
+package com.ecommerce.command.admission;
+
+/**
+ * Concurrency limit that follows observed latency.
+ * <p>
+ * Each sample compares the latency of the request with a slowly moving long-term average. While
+ * latency stays near the average the limit grows by about {@code sqrt(limit)}; when it rises the limit
+ * shrinks in proportion. Failed or timed-out requests cut the limit multiplicatively (AIMD).
+ */
+public class AdaptiveConcurrencyLimit {
+    
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int LONG_WINDOW = 600;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    
+    private volatile double limit;
+    private double longRttNanos;
+    
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+    
+    public int getLimit() {
+        return (int) limit;
+    }
+    
+    /**
+     * Updates the limit from one completed request
+     * @param rttNanos The time the request held its permit
+     * @param inflight The number of requests in flight when it was admitted
+     * @param dropped Whether the request failed in a way that indicates overload
+     */
+    public synchronized void onSample(long rttNanos, int inflight, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            return;
+        }
+        
+        // A mostly idle service says nothing about its capacity
+        if (inflight < limit / 2) {
+            return;
+        }
+        
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) / LONG_WINDOW;
+        
+        // Let the baseline recover quickly after a sustained slowdown has passed
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        
+        double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+}
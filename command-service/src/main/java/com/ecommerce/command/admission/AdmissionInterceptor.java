@@ -0,0 +1,49 @@
+package com.ecommerce.command.admission;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Takes an admission permit before a handler runs and releases it when the request completes.
+ * For asynchronous handlers the permit is held until the async dispatch has finished.
+ */
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+    
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+    
+    private final LoadShedder loadShedder;
+    
+    public AdmissionInterceptor(LoadShedder loadShedder) {
+        this.loadShedder = loadShedder;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The async dispatch of an admitted request runs the interceptor again
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, loadShedder.acquire(priorityOf(handlerMethod)));
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof LoadShedder.Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.release(ex != null || response.getStatus() >= 500);
+        }
+    }
+    
+    private Priority priorityOf(HandlerMethod handlerMethod) {
+        AdmissionPriority priority = handlerMethod.getMethodAnnotation(AdmissionPriority.class);
+        if (priority == null) {
+            priority = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), AdmissionPriority.class);
+        }
+        return priority != null ? priority.value() : Priority.NORMAL;
+    }
+}
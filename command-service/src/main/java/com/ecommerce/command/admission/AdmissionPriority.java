@@ -0,0 +1,17 @@
+package com.ecommerce.command.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the admission priority of a controller or handler method.
+ * A method-level annotation overrides the one on its controller; unannotated handlers are NORMAL.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionPriority {
+    
+    Priority value();
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.command.admission;
+
+import com.ecommerce.command.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits requests against an adaptive concurrency limit.
+ * <p>
+ * HIGH requests may use the whole limit, NORMAL and LOW only their configured share of it. The
+ * outbox backlog shrinks the shares of NORMAL and LOW further until, at the hard threshold, only
+ * HIGH requests are admitted.
+ */
+@Component
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class LoadShedder {
+    
+    private final AdaptiveConcurrencyLimit limit;
+    private final OutboxBacklogMonitor outboxBacklogMonitor;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Map<Priority, Double> shares = new EnumMap<>(Priority.class);
+    private final long retryAfterSeconds;
+    private final MeterRegistry meterRegistry;
+    
+    public LoadShedder(
+            OutboxBacklogMonitor outboxBacklogMonitor,
+            MeterRegistry meterRegistry,
+            @Value("${admission.initial-limit:20}") int initialLimit,
+            @Value("${admission.min-limit:4}") int minLimit,
+            @Value("${admission.max-limit:200}") int maxLimit,
+            @Value("${admission.normal-share:0.8}") double normalShare,
+            @Value("${admission.low-share:0.6}") double lowShare,
+            @Value("${admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit);
+        this.outboxBacklogMonitor = outboxBacklogMonitor;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.meterRegistry = meterRegistry;
+        shares.put(Priority.HIGH, 1.0);
+        shares.put(Priority.NORMAL, normalShare);
+        shares.put(Priority.LOW, lowShare);
+        
+        Gauge.builder("admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("admission.inflight", inflight, AtomicInteger::get)
+                .description("Requests currently holding an admission permit")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Admits a request or rejects it immediately
+     * @param priority The priority of the endpoint
+     * @return The permit to release once the request has completed
+     * @throws ServiceOverloadedException if the request must be shed
+     */
+    public Permit acquire(Priority priority) {
+        double share = shares.get(priority);
+        if (priority != Priority.HIGH) {
+            share *= 1 - outboxBacklogMonitor.getPressure();
+            if (share <= 0) {
+                throw reject(priority, "outbox_backlog");
+            }
+        }
+        
+        int allowed = Math.max(1, (int) (limit.getLimit() * share));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                throw reject(priority, "concurrency_limit");
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+    
+    private ServiceOverloadedException reject(Priority priority, String reason) {
+        Counter.builder("admission.rejected")
+                .description("Requests shed by admission control")
+                .tag("priority", priority.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return new ServiceOverloadedException(reason, retryAfterSeconds);
+    }
+    
+    public final class Permit {
+        
+        private final long startNanos = System.nanoTime();
+        private final int inflightAtStart;
+        
+        private Permit(int inflightAtStart) {
+            this.inflightAtStart = inflightAtStart;
+        }
+        
+        /**
+         * Releases the permit and feeds its latency into the limit
+         * @param dropped Whether the request failed in a way that indicates overload
+         */
+        public void release(boolean dropped) {
+            inflight.decrementAndGet();
+            limit.onSample(System.nanoTime() - startNanos, inflightAtStart, dropped);
+        }
+    }
+}
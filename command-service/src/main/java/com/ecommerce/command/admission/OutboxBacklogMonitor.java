@@ -0,0 +1,78 @@
+package com.ecommerce.command.admission;
+
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
+import com.ecommerce.command.repository.OutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks the number of unpublished outbox events as a shedding signal. A growing backlog means
+ * Kafka or the relay cannot keep up, so accepting more writes only delays every event further.
+ * With sharding, the backlog is the sum over the outboxes of all shards.
+ */
+@Component
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxBacklogMonitor {
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboxBacklogMonitor.class);
+    
+    private final OutboxRepository outboxRepository;
+    private final ShardRouter shardRouter;
+    private final long softBacklog;
+    private final long hardBacklog;
+    
+    private volatile long backlog;
+    
+    public OutboxBacklogMonitor(
+            OutboxRepository outboxRepository,
+            ShardRouter shardRouter,
+            MeterRegistry meterRegistry,
+            @Value("${admission.outbox.soft-backlog:5000}") long softBacklog,
+            @Value("${admission.outbox.hard-backlog:20000}") long hardBacklog) {
+        this.outboxRepository = outboxRepository;
+        this.shardRouter = shardRouter;
+        this.softBacklog = softBacklog;
+        this.hardBacklog = Math.max(hardBacklog, softBacklog + 1);
+        Gauge.builder("admission.outbox.backlog", this, OutboxBacklogMonitor::getBacklog)
+                .description("Unprocessed outbox events seen by admission control")
+                .register(meterRegistry);
+    }
+    
+    @WorkloadPool(Workload.OUTBOX)
+    @Scheduled(fixedDelayString = "${admission.outbox.backlog-check-interval-ms:1000}")
+    public void refresh() {
+        try {
+            long total = 0;
+            for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+                total += ShardContext.call(shard, outboxRepository::countByProcessedFalse);
+            }
+            backlog = total;
+        } catch (DataAccessException e) {
+            // Keep the last value; a failing database is already visible through request latency
+            log.warn("Could not read outbox backlog: {}", e.getMessage());
+        }
+    }
+    
+    public long getBacklog() {
+        return backlog;
+    }
+    
+    /**
+     * Returns how far the backlog is between the soft and the hard threshold
+     * @return 0 at or below the soft threshold, 1 at or above the hard threshold
+     */
+    public double getPressure() {
+        double pressure = (double) (backlog - softBacklog) / (hardBacklog - softBacklog);
+        return Math.max(0, Math.min(1, pressure));
+    }
+}
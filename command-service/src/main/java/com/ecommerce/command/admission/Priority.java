@@ -0,0 +1,11 @@
+package com.ecommerce.command.admission;
+
+/**
+ * Admission priority of an endpoint. Lower priorities may only use part of the concurrency limit,
+ * so they are shed first when the service is saturated.
+ */
+public enum Priority {
+    HIGH,
+    NORMAL,
+    LOW
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.command.cache;
+
+import com.ecommerce.command.repository.InventoryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Short-lived read-through cache of inventory quantities.
+ * <p>
+ * Values may be up to one TTL stale and are only meant for the order pre-check. The
+ * authoritative check remains the optimistic-locked decrement in {@code InventoryService}.
+ */
+@Component
+public class InventoryLevelCache {
+    
+    private final InventoryRepository inventoryRepository;
+    private final Cache<Long, Integer> quantitiesByProductId;
+    
+    public InventoryLevelCache(
+            InventoryRepository inventoryRepository,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.precheck-cache.ttl-ms:2000}") long ttlMs,
+            @Value("${inventory.precheck-cache.max-size:10000}") long maxSize) {
+        this.inventoryRepository = inventoryRepository;
+        this.quantitiesByProductId = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, quantitiesByProductId, "inventory.precheck");
+    }
+    
+    /**
+     * Returns the possibly stale quantity of a product, loading it on a miss
+     * @param productId The ID of the product
+     * @return The cached quantity, 0 if the product has no inventory
+     */
+    public int getQuantity(Long productId) {
+        // Loaded outside of Caffeine's compute so the database read never runs under a monitor,
+        // which would pin the carrier thread in virtual-thread mode
+        Integer quantity = quantitiesByProductId.getIfPresent(productId);
+        return quantity != null ? quantity : reload(productId);
+    }
+    
+    /**
+     * Reads the quantity of a product from the database and refreshes the cache with it
+     * @param productId The ID of the product
+     * @return The current quantity, 0 if the product has no inventory
+     */
+    public int reload(Long productId) {
+        int quantity = loadQuantity(productId);
+        quantitiesByProductId.put(productId, quantity);
+        return quantity;
+    }
+    
+    /**
+     * Stores the new quantity of a product once the current transaction has committed
+     * @param productId The ID of the product
+     * @param quantity The committed quantity
+     */
+    public void putAfterCommit(Long productId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            quantitiesByProductId.put(productId, quantity);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                quantitiesByProductId.put(productId, quantity);
+            }
+        });
+    }
+    
+    private int loadQuantity(Long productId) {
+        return inventoryRepository.findQuantityByProductId(productId).orElse(0);
+    }
+}
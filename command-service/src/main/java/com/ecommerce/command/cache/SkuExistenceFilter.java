@@ -0,0 +1,145 @@
+package com.ecommerce.command.cache;
+
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
+import com.ecommerce.command.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over the SKUs of all products.
+ * <p>
+ * A negative answer means the SKU is certainly unused, so the existence query can be skipped.
+ * Until the filter has been built every SKU is reported as possibly existing. SKUs created by
+ * other instances are not seen here; the unique constraint on {@code products.sku} stays the
+ * correctness backstop.
+ */
+@Component
+public class SkuExistenceFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger(SkuExistenceFilter.class);
+    
+    private final ProductRepository productRepository;
+    private final double falsePositiveRate;
+    private final double growthFactor;
+    private final long minCapacity;
+    private final Counter negatives;
+    private final Counter positives;
+    private final Counter falsePositives;
+    
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;
+    
+    public SkuExistenceFilter(
+            ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Value("${product.sku-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${product.sku-filter.growth-factor:2.0}") double growthFactor,
+            @Value("${product.sku-filter.min-capacity:10000}") long minCapacity) {
+        this.productRepository = productRepository;
+        this.falsePositiveRate = falsePositiveRate;
+        this.growthFactor = growthFactor;
+        this.minCapacity = minCapacity;
+        this.negatives = Counter.builder("sku.filter.checks")
+                .description("SKU existence checks answered by the Bloom filter")
+                .tag("result", "negative")
+                .register(meterRegistry);
+        this.positives = Counter.builder("sku.filter.checks")
+                .description("SKU existence checks answered by the Bloom filter")
+                .tag("result", "positive")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("sku.filter.false.positives")
+                .description("Positive filter answers for SKUs that did not exist")
+                .register(meterRegistry);
+        Gauge.builder("sku.filter.expected.fpp", this, f -> f.filter != null ? f.filter.expectedFalsePositiveRate() : 1.0)
+                .description("False-positive rate expected from the current filter fill")
+                .register(meterRegistry);
+        Gauge.builder("sku.filter.insertions", this, f -> f.filter != null ? f.filter.getInsertions() : 0)
+                .description("Number of SKUs added to the filter")
+                .register(meterRegistry);
+    }
+    
+    @WorkloadPool(Workload.BULK)
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void build() {
+        BloomFilter next = BloomFilter.create(capacityFor(productRepository.count()), falsePositiveRate);
+        
+        // SKUs created while the table is scanned are added to both filters
+        rebuilding = next;
+        try (Stream<String> skus = productRepository.streamAllSkus()) {
+            skus.forEach(next::put);
+        } finally {
+            rebuilding = null;
+        }
+        filter = next;
+        
+        log.info("Built SKU filter with {} SKUs ({} bits, {} hashes)",
+                next.getInsertions(), next.getBitCount(), next.getHashCount());
+    }
+    
+    @WorkloadPool(Workload.BULK)
+    @Scheduled(fixedDelayString = "${product.sku-filter.resize-check-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public void rebuildIfSaturated() {
+        BloomFilter current = filter;
+        if (current != null && current.getInsertions() > current.getExpectedInsertions()) {
+            log.info("SKU filter holds {} SKUs, above its capacity of {}, rebuilding",
+                    current.getInsertions(), current.getExpectedInsertions());
+            build();
+        }
+    }
+    
+    /**
+     * Checks whether a SKU might already be in use
+     * @param sku The SKU to check
+     * @return false if the SKU is certainly unused, true if it might exist
+     */
+    public boolean mightExist(String sku) {
+        BloomFilter current = filter;
+        if (current == null) {
+            return true;
+        }
+        if (current.mightContain(sku)) {
+            positives.increment();
+            return true;
+        }
+        negatives.increment();
+        return false;
+    }
+    
+    /**
+     * Records that a positive answer turned out to be a SKU that does not exist in the database
+     */
+    public void recordFalsePositive() {
+        if (filter != null) {
+            falsePositives.increment();
+        }
+    }
+    
+    public void add(String sku) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(sku);
+        }
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(sku);
+        }
+    }
+    
+    private long capacityFor(long productCount) {
+        return Math.max(minCapacity, (long) Math.ceil(productCount * growthFactor));
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.command.cache;
+
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
+import com.ecommerce.command.repository.TagRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process dictionary of tag names to tag IDs.
+ * <p>
+ * The dictionary is preloaded on startup and only learns about new tags once the
+ * transaction that created them has committed, so a rolled back insert never leaves
+ * a dangling ID behind.
+ * <p>
+ * With sharding, shard 0 owns the tags and hands out their IDs. A tag is copied with the same ID
+ * to every other shard the first time one of its products is tagged there, so product tags can
+ * keep referencing their tag on the shard of the product.
+ */
+@Component
+public class TagDictionary {
+    
+    private static final Logger log = LoggerFactory.getLogger(TagDictionary.class);
+    
+    private final TagRepository tagRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate newTransaction;
+    private final ConcurrentMap<String, Long> tagIdsByName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Set<Long>> copiedTagIdsByShard = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    
+    public TagDictionary(
+            TagRepository tagRepository,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.tagRepository = tagRepository;
+        this.shardRouter = shardRouter;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hits = Counter.builder("tag.dictionary.lookups")
+                .description("Tag name lookups served by the tag dictionary")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("tag.dictionary.lookups")
+                .description("Tag name lookups served by the tag dictionary")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("tag.dictionary.size", tagIdsByName, Map::size)
+                .description("Number of tags held in the tag dictionary")
+                .register(meterRegistry);
+    }
+    
+    @WorkloadPool(Workload.BULK)
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        ShardContext.run(0, () -> tagRepository.findAll().forEach(tag -> tagIdsByName.put(tag.getName(), tag.getId())));
+        for (int shard = 1; shard < shardRouter.getShards(); shard++) {
+            Set<Long> copiedTagIds = copiedTagIds(shard);
+            ShardContext.run(shard, () -> tagRepository.findAll().forEach(tag -> copiedTagIds.add(tag.getId())));
+        }
+        log.info("Preloaded {} tags into the tag dictionary", tagIdsByName.size());
+    }
+    
+    /**
+     * Resolves the ID of the tag with the given name, creating the tag if it does not exist yet.
+     * With sharding, the tag is also made available on the shard of the current transaction.
+     * @param name The tag name
+     * @return The tag ID
+     */
+    @Transactional
+    public Long resolve(String name) {
+        Long tagId = tagIdsByName.get(name);
+        if (tagId != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            if (!shardRouter.isEnabled()) {
+                tagId = create(name);
+                Long createdId = tagId;
+                runAfterCommit(() -> tagIdsByName.put(name, createdId));
+                return tagId;
+            }
+            
+            // Created in a transaction of its own on shard 0, so the tag is committed before it is copied
+            tagId = ShardContext.call(0, () -> newTransaction.execute(status -> create(name)));
+            tagIdsByName.put(name, tagId);
+        }
+        
+        Integer shard = ShardContext.current();
+        if (shard != null && shard != 0 && !copiedTagIds(shard).contains(tagId)) {
+            tagRepository.insertWithIdIfAbsent(tagId, name);
+            Long copiedId = tagId;
+            runAfterCommit(() -> copiedTagIds(shard).add(copiedId));
+        }
+        return tagId;
+    }
+    
+    private Long create(String name) {
+        // Insert-on-conflict keeps concurrent creators from producing duplicate tags
+        tagRepository.insertIfAbsent(name);
+        return tagRepository.findIdByName(name)
+                .orElseThrow(() -> new IllegalStateException("Tag '" + name + "' could not be resolved"));
+    }
+    
+    private Set<Long> copiedTagIds(int shard) {
+        return copiedTagIdsByShard.computeIfAbsent(shard, key -> ConcurrentHashMap.newKeySet());
+    }
+    
+    private void runAfterCommit(Runnable registration) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            registration.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registration.run();
+            }
+        });
+    }
+}
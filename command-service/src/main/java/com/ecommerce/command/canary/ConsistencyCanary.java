@@ -0,0 +1,271 @@
+package com.ecommerce.command.canary;
+
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.domain.Product;
+import com.ecommerce.command.dto.CreateProductRequest;
+import com.ecommerce.command.dto.UpdateProductRequest;
+import com.ecommerce.command.exception.DuplicateResourceException;
+import com.ecommerce.command.persistence.ProductRegistry;
+import com.ecommerce.command.repository.ProductRepository;
+import com.ecommerce.command.service.ProductService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how long a write takes to become observable downstream. Every probe rewrites the
+ * description of a dedicated canary product through {@link ProductService}, so the change takes
+ * the normal outbox path, and then waits until its outbox event has been acked by Kafka and,
+ * when {@code canary.query.url-template} is set, until the query side serves the new description.
+ * <p>
+ * Probes run one after another on a thread of their own, never on the shared scheduler.
+ */
+@Component
+@ConditionalOnProperty(name = "canary.enabled", havingValue = "true")
+public class ConsistencyCanary implements DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(ConsistencyCanary.class);
+    
+    private static final String FIND_EVENT_SQL =
+            "SELECT id FROM outbox_events WHERE id > ? AND aggregate_type = 'product' AND aggregate_id = ? " +
+            "ORDER BY id LIMIT 1";
+    
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final ProductRegistry productRegistry;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    private final String sku;
+    private final long intervalMs;
+    private final long pollIntervalMs;
+    private final Duration timeout;
+    private final String queryUrlTemplate;
+    private final Duration ackThreshold;
+    private final Duration queryThreshold;
+    
+    private final Timer ackLag;
+    private final Timer queryLag;
+    
+    private volatile Long productId;
+    
+    public ConsistencyCanary(
+            ProductService productService,
+            ProductRepository productRepository,
+            ProductRegistry productRegistry,
+            ShardRouter shardRouter,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${canary.sku:CANARY-CONSISTENCY-PROBE}") String sku,
+            @Value("${canary.interval-ms:30000}") long intervalMs,
+            @Value("${canary.poll-interval-ms:100}") long pollIntervalMs,
+            @Value("${canary.timeout-ms:60000}") long timeoutMs,
+            @Value("${canary.query.url-template:}") String queryUrlTemplate,
+            @Value("${canary.ack-alert-threshold-ms:5000}") long ackThresholdMs,
+            @Value("${canary.query-alert-threshold-ms:15000}") long queryThresholdMs) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.productRegistry = productRegistry;
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.sku = sku;
+        this.intervalMs = intervalMs;
+        this.pollIntervalMs = pollIntervalMs;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.queryUrlTemplate = queryUrlTemplate;
+        this.ackThreshold = Duration.ofMillis(ackThresholdMs);
+        this.queryThreshold = Duration.ofMillis(queryThresholdMs);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "consistency-canary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The alert thresholds are SLO buckets, so their breach rate can be read off the histogram
+        this.ackLag = Timer.builder("consistency.canary.lag")
+                .description("Time from a canary write until it is observable")
+                .tag("stage", "ack")
+                .serviceLevelObjectives(ackThreshold)
+                .register(meterRegistry);
+        this.queryLag = Timer.builder("consistency.canary.lag")
+                .description("Time from a canary write until it is observable")
+                .tag("stage", "query")
+                .serviceLevelObjectives(queryThreshold)
+                .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Starting consistency canary every {} ms{}", intervalMs,
+                queryUrlTemplate.isBlank() ? "" : ", checking " + queryUrlTemplate);
+        executor.scheduleWithFixedDelay(this::probe, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+    
+    void probe() {
+        try {
+            Long id = resolveProduct();
+            int shard = shardRouter.shardFor(id);
+            String token = "canary-" + sequence.incrementAndGet() + "-" + System.currentTimeMillis();
+            
+            // Remember where the outbox stood, so the canary's event is found by a primary key range scan
+            Long lastEventId = ShardContext.call(shard,
+                    () -> jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM outbox_events", Long.class));
+            
+            long start = System.nanoTime();
+            UpdateProductRequest request = new UpdateProductRequest();
+            request.setDescription(token);
+            productService.updateProduct(id, request);
+            
+            // The update has committed, so its outbox event is already there
+            List<Long> eventIds = ShardContext.call(shard,
+                    () -> jdbcTemplate.queryForList(FIND_EVENT_SQL, Long.class, lastEventId, id.toString()));
+            if (eventIds.isEmpty()) {
+                count("failed", "ack");
+                log.warn("Canary write {} left no outbox event", token);
+                return;
+            }
+            if (!awaitAck(shard, eventIds.get(0), start)) {
+                count("timeout", "ack");
+                log.warn("Canary write {} was not acked within {}", token, timeout);
+                return;
+            }
+            Duration acked = Duration.ofNanos(System.nanoTime() - start);
+            record(ackLag, "ack", acked, ackThreshold, token);
+            
+            if (!queryUrlTemplate.isBlank()) {
+                if (!awaitQuery(id, token, start)) {
+                    count("timeout", "query");
+                    log.warn("Canary write {} was not visible on the query side within {}", token, timeout);
+                    return;
+                }
+                record(queryLag, "query", Duration.ofNanos(System.nanoTime() - start), queryThreshold, token);
+            }
+            count("observed", null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            count("failed", null);
+            log.warn("Consistency canary probe failed", e);
+        }
+    }
+    
+    private Long resolveProduct() {
+        if (productId != null) {
+            return productId;
+        }
+        Long id = findProduct();
+        if (id == null) {
+            CreateProductRequest request = new CreateProductRequest();
+            request.setSku(sku);
+            request.setName("Consistency canary");
+            request.setDescription("canary");
+            request.setPrice(new BigDecimal("0.01"));
+            try {
+                id = productService.createProduct(request).getId();
+                log.info("Created canary product {} with SKU {}", id, sku);
+            } catch (DuplicateResourceException e) {
+                // Another instance created it first
+                id = findProduct();
+            }
+        }
+        productId = id;
+        return id;
+    }
+    
+    private Long findProduct() {
+        if (shardRouter.isEnabled()) {
+            return productRegistry.lookup(sku);
+        }
+        return productRepository.findBySku(sku).map(Product::getId).orElse(null);
+    }
+    
+    private boolean awaitAck(int shard, Long eventId, long start) throws InterruptedException {
+        while (!timedOut(start)) {
+            List<Boolean> processed = ShardContext.call(shard, () -> jdbcTemplate.queryForList(
+                    "SELECT processed FROM outbox_events WHERE id = ?", Boolean.class, eventId));
+            if (!processed.isEmpty() && Boolean.TRUE.equals(processed.get(0))) {
+                return true;
+            }
+            Thread.sleep(pollIntervalMs);
+        }
+        return false;
+    }
+    
+    private boolean awaitQuery(Long id, String token, long start) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(queryUrlTemplate.replace("{productId}", id.toString())))
+                .timeout(Duration.ofSeconds(2))
+                .GET()
+                .build();
+        while (!timedOut(start)) {
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200 && response.body().contains(token)) {
+                    return true;
+                }
+            } catch (IOException e) {
+                log.debug("Canary query failed: {}", e.getMessage());
+            }
+            Thread.sleep(pollIntervalMs);
+        }
+        return false;
+    }
+    
+    private boolean timedOut(long start) {
+        return System.nanoTime() - start > timeout.toNanos();
+    }
+    
+    private void record(Timer timer, String stage, Duration lag, Duration threshold, String token) {
+        timer.record(lag);
+        if (lag.compareTo(threshold) > 0) {
+            Counter.builder("consistency.canary.threshold.exceeded")
+                    .description("Canary writes observed later than the alert threshold")
+                    .tag("stage", stage)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Canary write {} took {} ms to reach {}, above the {} ms threshold",
+                    token, lag.toMillis(), stage, threshold.toMillis());
+        }
+    }
+    
+    private void count(String outcome, String stage) {
+        Counter.builder("consistency.canary.probes")
+                .description("Consistency canary probes by outcome")
+                .tag("outcome", outcome)
+                .tag("stage", stage == null ? "none" : stage)
+                .register(meterRegistry)
+                .increment();
+    }
+}
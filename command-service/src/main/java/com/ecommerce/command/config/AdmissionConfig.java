@@ -0,0 +1,25 @@
+package com.ecommerce.command.config;
+
+import com.ecommerce.command.admission.AdmissionInterceptor;
+import com.ecommerce.command.admission.LoadShedder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig implements WebMvcConfigurer {
+    
+    private final LoadShedder loadShedder;
+    
+    public AdmissionConfig(LoadShedder loadShedder) {
+        this.loadShedder = loadShedder;
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(loadShedder))
+                .addPathPatterns("/products/**", "/orders/**", "/reactive/**");
+    }
+}
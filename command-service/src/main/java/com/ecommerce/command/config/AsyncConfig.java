@@ -1,7 +1,9 @@
 package com.ecommerce.command.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -11,8 +13,19 @@ import java.util.concurrent.Executor;
 @EnableAsync
 public class AsyncConfig {
     
+    @Value("${threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+    
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        if (virtualThreadsEnabled) {
+            // One virtual thread per task, capped at the platform pool's maximum parallelism
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("OutboxProcessor-");
+            executor.setThreadFactory(VirtualThreads.threadFactory("OutboxProcessor-"));
+            executor.setConcurrencyLimit(4);
+            return executor;
+        }
+        
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(4);
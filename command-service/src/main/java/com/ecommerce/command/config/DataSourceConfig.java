@@ -0,0 +1,208 @@
+package com.ecommerce.command.config;
+
+import com.ecommerce.command.datasource.ConsistentHashRing;
+import com.ecommerce.command.datasource.ReplicaRoutingDataSource;
+import com.ecommerce.command.datasource.ShardPools;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.datasource.ShardRoutingDataSource;
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadRoutingDataSource;
+import com.ecommerce.command.instrumentation.SqlExecutionListener;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.flywaydb.core.internal.database.postgresql.PostgreSQLConfigurationExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One Hikari pool per {@link Workload}, behind a routing datasource. A catalog import or an outbox
+ * backlog can then exhaust only its own pool, never the connections reserved for checkout.
+ * Read-only transactions go to the configured read replicas instead, while they keep up.
+ * With sharding enabled, every additional shard gets its own set of workload pools.
+ * <p>
+ * The JDBC side is declared here in full, {@code spring.datasource.*} included: Boot's
+ * DataSourceAutoConfiguration backs off as soon as the R2DBC ConnectionFactory exists, and JPA and
+ * Flyway run on whichever DataSource this class provides.
+ */
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, WorkloadPoolProperties.class, ReplicaProperties.class,
+        ShardingProperties.class})
+public class DataSourceConfig {
+    
+    @Bean
+    public WorkloadRoutingDataSource workloadRoutingDataSource(
+            DataSourceProperties dataSourceProperties,
+            WorkloadPoolProperties workloadPoolProperties,
+            MeterRegistry meterRegistry) {
+        return createWorkloadPools(dataSourceProperties, dataSourceProperties.determineUrl(), "",
+                workloadPoolProperties, meterRegistry);
+    }
+    
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            WorkloadRoutingDataSource workloadRoutingDataSource,
+            DataSourceProperties dataSourceProperties,
+            ReplicaProperties replicaProperties,
+            MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaProperties.getUrls().size(); i++) {
+            HikariDataSource replica = dataSourceProperties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replicaProperties.getUrls().get(i))
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            replica.setConnectionTimeout(replicaProperties.getConnectionTimeoutMs());
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(workloadRoutingDataSource, replicas, replicaProperties.getMaxLagMs(), meterRegistry);
+    }
+    
+    @Bean
+    public ShardRouter shardRouter(
+            ShardingProperties shardingProperties,
+            @Value("${outbox.relay:blocking}") String outboxRelay) {
+        // The reactive relay only reads the primary's outbox and would leave the other shards undrained
+        if (shardingProperties.isEnabled() && "reactive".equals(outboxRelay)) {
+            throw new IllegalStateException("datasource.sharding.enabled requires outbox.relay=blocking");
+        }
+        return new ShardRouter(
+                new ConsistentHashRing(shardingProperties.getShards(), shardingProperties.getVirtualNodes()),
+                shardingProperties.isEnabled());
+    }
+    
+    @Bean
+    public ShardPools shardPools(
+            DataSourceProperties dataSourceProperties,
+            WorkloadPoolProperties workloadPoolProperties,
+            ShardingProperties shardingProperties,
+            MeterRegistry meterRegistry) {
+        Map<Integer, WorkloadRoutingDataSource> shards = new HashMap<>();
+        for (int shard = 1; shard < shardingProperties.getShards(); shard++) {
+            shards.put(shard, createWorkloadPools(dataSourceProperties, shardingProperties.getUrls().get(shard - 1),
+                    "-shard" + shard, workloadPoolProperties, meterRegistry));
+        }
+        return new ShardPools(shards);
+    }
+    
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(
+            ReplicaRoutingDataSource replicaRoutingDataSource,
+            ShardPools shardPools) {
+        Map<Object, Object> shards = new HashMap<>(shardPools.getShards());
+        shards.put(0, replicaRoutingDataSource);
+        
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        routingDataSource.setTargetDataSources(shards);
+        routingDataSource.setDefaultTargetDataSource(replicaRoutingDataSource);
+        return routingDataSource;
+    }
+    
+    @Bean
+    public FlywayConfigurationCustomizer sessionLockFlywayCustomizer() {
+        return DataSourceConfig::useSessionLock;
+    }
+    
+    // Every shard holds the full schema, so the primary's migrations are applied to each of them
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(ShardPools shardPools) {
+        return flyway -> {
+            flyway.migrate();
+            shardPools.getShards().values().forEach(shard -> {
+                FluentConfiguration configuration = Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shard);
+                useSessionLock(configuration);
+                configuration.load().migrate();
+            });
+        };
+    }
+    
+    // CREATE INDEX CONCURRENTLY waits for every open transaction, the one holding Flyway's default
+    // transaction-level lock included, so the migrations would never finish. A session lock holds no transaction
+    private static void useSessionLock(FluentConfiguration configuration) {
+        configuration.getPluginRegister()
+                .getPlugin(PostgreSQLConfigurationExtension.class)
+                .setTransactionalLock(false);
+    }
+    
+    // The physical connection is only taken at the first statement. By then the transaction's
+    // read-only flag and shard are known, and transactions served entirely from caches never touch a pool.
+    // With SQL instrumentation enabled, the datasource proxy sits outside and sees every statement
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            ShardRoutingDataSource shardRoutingDataSource,
+            ObjectProvider<SqlExecutionListener> sqlExecutionListener,
+            @Value("${sql-instrumentation.count-result-rows:true}") boolean countResultRows) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        SqlExecutionListener listener = sqlExecutionListener.getIfAvailable();
+        if (listener == null) {
+            return dataSource;
+        }
+        
+        ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create("command-service", dataSource)
+                .listener(listener);
+        if (countResultRows) {
+            builder.proxyResultSet().methodListener(listener);
+        }
+        return builder.build();
+    }
+    
+    private WorkloadRoutingDataSource createWorkloadPools(
+            DataSourceProperties dataSourceProperties,
+            String url,
+            String poolNameSuffix,
+            WorkloadPoolProperties workloadPoolProperties,
+            MeterRegistry meterRegistry) {
+        Map<Object, Object> pools = new HashMap<>();
+        for (Workload workload : Workload.values()) {
+            pools.put(workload, createPool(dataSourceProperties, url, workload.poolName() + poolNameSuffix,
+                    workloadPoolProperties.getPool(workload), meterRegistry));
+        }
+        
+        WorkloadRoutingDataSource routingDataSource = new WorkloadRoutingDataSource();
+        routingDataSource.setTargetDataSources(pools);
+        routingDataSource.setDefaultTargetDataSource(pools.get(Workload.CATALOG));
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+    
+    private HikariDataSource createPool(
+            DataSourceProperties dataSourceProperties,
+            String url,
+            String poolName,
+            WorkloadPoolProperties.Pool pool,
+            MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        dataSource.setPoolName(poolName);
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setMinimumIdle(pool.getMinimumIdle());
+        dataSource.setConnectionTimeout(pool.getConnectionTimeoutMs());
+        // Registers hikaricp.connections.acquire (pool wait time) and friends, tagged with the pool name
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
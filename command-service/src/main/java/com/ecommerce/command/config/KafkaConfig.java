@@ -2,11 +2,15 @@ package com.ecommerce.command.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
 
 @Configuration
 public class KafkaConfig {
@@ -37,4 +41,13 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
+    
+    // Shares the producer settings of the KafkaTemplate so both outbox relays emit identical records
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "outbox.relay", havingValue = "reactive")
+    public KafkaSender<String, String> reactiveKafkaSender(KafkaProperties kafkaProperties) {
+        SenderOptions<String, String> senderOptions = SenderOptions.<String, String>create(kafkaProperties.buildProducerProperties())
+                .stopOnError(false);
+        return KafkaSender.create(senderOptions);
+    }
 }
@@ -0,0 +1,27 @@
+package com.ecommerce.command.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Beans that stay eager under {@code spring.main.lazy-initialization=true} (the fast-startup
+ * profile). The schema must be migrated before the service reports ready, so the datasources,
+ * Flyway and the entity manager factory are created at startup; everything else, controllers and
+ * services included, is created on first use. The profile skips Hibernate's schema validation,
+ * which Flyway and the index check already cover. Scheduled beans are kept eager by Spring Boot
+ * itself.
+ */
+@Configuration
+public class LazyInitializationConfig {
+    
+    @Bean
+    public static LazyInitializationExcludeFilter startupCriticalBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                DataSource.class, FlywayMigrationInitializer.class, EntityManagerFactory.class);
+    }
+}
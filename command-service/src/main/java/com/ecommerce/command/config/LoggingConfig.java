@@ -0,0 +1,30 @@
+package com.ecommerce.command.config;
+
+import ch.qos.logback.classic.LoggerContext;
+import com.ecommerce.command.logging.RateLimitingTurboFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LoggingConfig {
+    
+    // Exposes how many log events the prod sampling filter dropped; a no-op when it is not configured
+    @Bean
+    public MeterBinder sampledLogMetrics() {
+        return registry -> {
+            if (LoggerFactory.getILoggerFactory() instanceof LoggerContext context) {
+                context.getTurboFilterList().stream()
+                        .filter(RateLimitingTurboFilter.class::isInstance)
+                        .map(RateLimitingTurboFilter.class::cast)
+                        .findFirst()
+                        .ifPresent(filter -> FunctionCounter.builder("logging.events.suppressed", filter,
+                                        RateLimitingTurboFilter::getSuppressedCount)
+                                .description("Log events dropped by per-logger rate limiting")
+                                .register(registry));
+            }
+        };
+    }
+}
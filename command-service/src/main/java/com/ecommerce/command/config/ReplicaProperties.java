@@ -0,0 +1,51 @@
+package com.ecommerce.command.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas that serve read-only transactions ({@code datasource.replica.*}).
+ * Credentials are shared with the primary and come from {@code spring.datasource.*}.
+ */
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaProperties {
+    
+    private List<String> urls = new ArrayList<>();
+    private int maximumPoolSize = 5;
+    private long connectionTimeoutMs = 500;
+    private long maxLagMs = 1000;
+    
+    public List<String> getUrls() {
+        return urls;
+    }
+    
+    public void setUrls(List<String> urls) {
+        this.urls = urls;
+    }
+    
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+    
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+    
+    public long getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+    
+    public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+    
+    public long getMaxLagMs() {
+        return maxLagMs;
+    }
+    
+    public void setMaxLagMs(long maxLagMs) {
+        this.maxLagMs = maxLagMs;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.command.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional sharding of products, inventory and product tags ({@code datasource.sharding.*}).
+ * Shard 0 is the primary from {@code spring.datasource.*}; {@code urls} lists the additional
+ * shards, which share its credentials and workload pool sizes.
+ */
+@ConfigurationProperties(prefix = "datasource.sharding")
+public class ShardingProperties {
+    
+    private boolean enabled = false;
+    private List<String> urls = new ArrayList<>();
+    private int virtualNodes = 128;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public List<String> getUrls() {
+        return urls;
+    }
+    
+    public void setUrls(List<String> urls) {
+        this.urls = urls;
+    }
+    
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+    
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+    
+    public int getShards() {
+        return enabled ? urls.size() + 1 : 1;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.command.config;
+
+import com.ecommerce.command.instrumentation.SqlExecutionListener;
+import com.ecommerce.command.instrumentation.SqlRequestInterceptor;
+import com.ecommerce.command.instrumentation.SqlStatementStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "sql-instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfig implements WebMvcConfigurer {
+    
+    private final MeterRegistry meterRegistry;
+    
+    public SqlInstrumentationConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Bean
+    public SqlExecutionListener sqlExecutionListener(SqlStatementStatistics statementStatistics) {
+        return new SqlExecutionListener(meterRegistry, statementStatistics);
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlRequestInterceptor(meterRegistry))
+                .addPathPatterns("/products/**", "/orders/**");
+    }
+}
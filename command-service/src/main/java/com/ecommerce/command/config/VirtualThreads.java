@@ -0,0 +1,42 @@
+package com.ecommerce.command.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual thread API of Java 21.
+ * <p>
+ * The service is still built for Java 17, so the API is looked up reflectively and is only
+ * touched when virtual-thread mode is enabled.
+ */
+final class VirtualThreads {
+    
+    private VirtualThreads() {
+    }
+    
+    static ThreadFactory threadFactory(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+    
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory(namePrefix));
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+    
+    private static IllegalStateException unsupported(Exception cause) {
+        return new IllegalStateException(
+                "threads.virtual.enabled requires Java 21 or later, running on " + Runtime.version(), cause);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.command.config;
+
+import com.ecommerce.command.datasource.Workload;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sizes of the per-workload connection pools, keyed by pool name ({@code datasource.pools.orders.*}).
+ * Connection settings are shared and come from {@code spring.datasource.*}.
+ */
+@ConfigurationProperties(prefix = "datasource")
+public class WorkloadPoolProperties {
+    
+    private Map<String, Pool> pools = new HashMap<>();
+    
+    public Pool getPool(Workload workload) {
+        return pools.getOrDefault(workload.poolName(), new Pool());
+    }
+    
+    public Map<String, Pool> getPools() {
+        return pools;
+    }
+    
+    public void setPools(Map<String, Pool> pools) {
+        this.pools = pools;
+    }
+    
+    public static class Pool {
+        private int maximumPoolSize = 5;
+        private int minimumIdle = 1;
+        private long connectionTimeoutMs = 2000;
+        
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+        
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+        
+        public int getMinimumIdle() {
+            return minimumIdle;
+        }
+        
+        public void setMinimumIdle(int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+        
+        public long getConnectionTimeoutMs() {
+            return connectionTimeoutMs;
+        }
+        
+        public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+            this.connectionTimeoutMs = connectionTimeoutMs;
+        }
+    }
+}
@@ -4,10 +4,12 @@ import com.ecommerce.command.exception.ApiError;
 import com.ecommerce.command.exception.DuplicateResourceException;
 import com.ecommerce.command.exception.InsufficientInventoryException;
 import com.ecommerce.command.exception.ResourceNotFoundException;
+import com.ecommerce.command.exception.ServiceOverloadedException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
@@ -24,7 +26,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ApiError> handleResourceNotFoundException(
             ResourceNotFoundException ex, HttpServletRequest request) {
-        log.error("Resource not found", ex);
+        log.warn("Resource not found: {}", ex.getMessage());
         ApiError apiError = new ApiError(
                 HttpStatus.NOT_FOUND.value(),
                 "RESOURCE_NOT_FOUND",
@@ -36,7 +38,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(DuplicateResourceException.class)
     public ResponseEntity<ApiError> handleDuplicateResourceException(
             DuplicateResourceException ex, HttpServletRequest request) {
-        log.error("Duplicate resource", ex);
+        log.warn("Duplicate resource: {}", ex.getMessage());
         ApiError apiError = new ApiError(
                 HttpStatus.CONFLICT.value(),
                 "DUPLICATE_RESOURCE",
@@ -48,7 +50,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(InsufficientInventoryException.class)
     public ResponseEntity<ApiError> handleInsufficientInventoryException(
             InsufficientInventoryException ex, HttpServletRequest request) {
-        log.error("Insufficient inventory", ex);
+        log.warn("Insufficient inventory: {}", ex.getMessage());
         ApiError apiError = new ApiError(
                 HttpStatus.CONFLICT.value(),
                 "INSUFFICIENT_INVENTORY",
@@ -57,10 +59,25 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
     }
     
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleServiceOverloadedException(
+            ServiceOverloadedException ex, HttpServletRequest request) {
+        // Shedding happens in bursts, so it is only counted by metrics and not logged per request
+        log.debug("Request shed: {}", ex.getMessage());
+        ApiError apiError = new ApiError(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "SERVICE_OVERLOADED",
+                ex.getMessage(),
+                request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(apiError);
+    }
+    
     @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
     public ResponseEntity<ApiError> handleOptimisticLockingFailureException(
             ObjectOptimisticLockingFailureException ex, HttpServletRequest request) {
-        log.error("Optimistic locking failure", ex);
+        log.warn("Optimistic locking failure: {}", ex.getMessage());
         ApiError apiError = new ApiError(
                 HttpStatus.CONFLICT.value(),
                 "CONCURRENT_MODIFICATION",
@@ -72,7 +89,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ApiError> handleDataIntegrityViolationException(
             DataIntegrityViolationException ex, HttpServletRequest request) {
-        log.error("Data integrity violation", ex);
+        log.warn("Data integrity violation: {}", ex.getMostSpecificCause().getMessage());
         ApiError apiError = new ApiError(
                 HttpStatus.CONFLICT.value(),
                 "DATA_INTEGRITY_VIOLATION",
@@ -84,7 +101,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiError> handleMethodArgumentNotValidException(
             MethodArgumentNotValidException ex, HttpServletRequest request) {
-        log.error("Validation error", ex);
+        log.warn("Validation error on {}: {} field errors", request.getRequestURI(), ex.getBindingResult().getFieldErrorCount());
         ApiError apiError = new ApiError(
                 HttpStatus.BAD_REQUEST.value(),
                 "VALIDATION_ERROR",
@@ -98,6 +115,7 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
     }
     
+    // The only handler that logs a stack trace; the expected outcomes above log one-line warnings
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleAllUncaughtException(
             Exception ex, HttpServletRequest request) {
@@ -1,5 +1,7 @@
 package com.ecommerce.command.controller;
 
+import com.ecommerce.command.admission.AdmissionPriority;
+import com.ecommerce.command.admission.Priority;
 import com.ecommerce.command.dto.CreateOrderRequest;
 import com.ecommerce.command.dto.OrderResponse;
 import com.ecommerce.command.service.OrderService;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/orders")
+@AdmissionPriority(Priority.HIGH)
 public class OrderController {
     
     private static final Logger log = LoggerFactory.getLogger(OrderController.class);
@@ -1,5 +1,7 @@
 package com.ecommerce.command.controller;
 
+import com.ecommerce.command.admission.AdmissionPriority;
+import com.ecommerce.command.admission.Priority;
 import com.ecommerce.command.dto.*;
 import com.ecommerce.command.service.InventoryService;
 import com.ecommerce.command.service.ProductService;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/products")
+@AdmissionPriority(Priority.LOW)
 public class ProductController {
     
     private static final Logger log = LoggerFactory.getLogger(ProductController.class);
@@ -58,7 +61,33 @@ public class ProductController {
         return ResponseEntity.ok(TagResponse.removed(productId, tagId));
     }
     
+    @PutMapping("/{productId}/tags")
+    public ResponseEntity<BulkTagResponse> replaceProductTags(
+            @PathVariable Long productId,
+            @Valid @RequestBody ProductTagsRequest request) {
+        log.info("Received request to replace tags of product with ID: {}", productId);
+        BulkTagResponse response = productService.replaceProductTags(productId, request.getTags());
+        return ResponseEntity.ok(response);
+    }
+    
+    @PatchMapping("/{productId}/tags")
+    public ResponseEntity<BulkTagResponse> mergeProductTags(
+            @PathVariable Long productId,
+            @Valid @RequestBody ProductTagsRequest request) {
+        log.info("Received request to merge tags into product with ID: {}", productId);
+        BulkTagResponse response = productService.mergeProductTags(productId, request.getTags());
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/tags/bulk")
+    public ResponseEntity<BulkTagResponse> applyTagToProducts(@Valid @RequestBody BulkTagRequest request) {
+        log.info("Received request to apply tag '{}' to {} products", request.getTag().getName(), request.getProductIds().size());
+        BulkTagResponse response = productService.applyTagToProducts(request.getTag(), request.getProductIds());
+        return ResponseEntity.ok(response);
+    }
+    
     @PutMapping("/{productId}/inventory")
+    @AdmissionPriority(Priority.NORMAL)
     public ResponseEntity<InventoryResponse> updateInventory(
             @PathVariable Long productId,
             @Valid @RequestBody UpdateInventoryRequest request) {
@@ -0,0 +1,41 @@
+package com.ecommerce.command.controller;
+
+import com.ecommerce.command.admission.AdmissionPriority;
+import com.ecommerce.command.admission.Priority;
+import com.ecommerce.command.dto.CreateOrderRequest;
+import com.ecommerce.command.dto.OrderResponse;
+import com.ecommerce.command.service.ReactiveOrderService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+// Returning a Mono releases the servlet thread until the R2DBC pipeline completes
+@RestController
+@ConditionalOnProperty(name = "datasource.sharding.enabled", havingValue = "false", matchIfMissing = true)
+@RequestMapping("/reactive/orders")
+@AdmissionPriority(Priority.HIGH)
+public class ReactiveOrderController {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveOrderController.class);
+    
+    private final ReactiveOrderService reactiveOrderService;
+    
+    public ReactiveOrderController(ReactiveOrderService reactiveOrderService) {
+        this.reactiveOrderService = reactiveOrderService;
+    }
+    
+    @PostMapping
+    public Mono<ResponseEntity<OrderResponse>> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+        log.info("Received reactive request to create order with {} items", request.getItems().size());
+        return reactiveOrderService.createOrder(request)
+                .map(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
+    }
+}
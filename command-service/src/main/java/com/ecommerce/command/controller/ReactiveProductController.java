@@ -0,0 +1,39 @@
+package com.ecommerce.command.controller;
+
+import com.ecommerce.command.dto.InventoryResponse;
+import com.ecommerce.command.dto.UpdateInventoryRequest;
+import com.ecommerce.command.service.ReactiveInventoryService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@ConditionalOnProperty(name = "datasource.sharding.enabled", havingValue = "false", matchIfMissing = true)
+@RequestMapping("/reactive/products")
+public class ReactiveProductController {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveProductController.class);
+    
+    private final ReactiveInventoryService reactiveInventoryService;
+    
+    public ReactiveProductController(ReactiveInventoryService reactiveInventoryService) {
+        this.reactiveInventoryService = reactiveInventoryService;
+    }
+    
+    @PutMapping("/{productId}/inventory")
+    public Mono<ResponseEntity<InventoryResponse>> updateInventory(
+            @PathVariable Long productId,
+            @Valid @RequestBody UpdateInventoryRequest request) {
+        log.info("Received reactive request to update inventory for product with ID: {}", productId);
+        return reactiveInventoryService.updateInventory(productId, request)
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.command.datasource;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring that maps product IDs to shards.
+ * <p>
+ * Every shard owns a number of virtual nodes spread over the ring, and a key belongs to the first
+ * node at or after its hash. Adding a shard only moves the keys that land on the new shard's
+ * nodes, roughly {@code 1 / shards} of them, instead of reshuffling everything as a modulo would.
+ */
+public final class ConsistentHashRing {
+    
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+    private final int shards;
+    
+    public ConsistentHashRing(int shards, int virtualNodes) {
+        if (shards < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("A ring needs at least one shard and one virtual node per shard");
+        }
+        this.shards = shards;
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.put(mix(((long) shard << 32) | node), shard);
+            }
+        }
+    }
+    
+    public int shardFor(long key) {
+        if (shards == 1) {
+            return 0;
+        }
+        Map.Entry<Long, Integer> node = ring.ceilingEntry(mix(key));
+        return node != null ? node.getValue() : ring.firstEntry().getValue();
+    }
+    
+    public int getShards() {
+        return shards;
+    }
+    
+    // MurmurHash3 finalizer: spreads sequential IDs evenly over the ring
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,150 @@
+package com.ecommerce.command.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the primary.
+ * <p>
+ * Replicas are picked round-robin among those whose replication lag is within the bound. When none
+ * qualifies, reads fall back to the primary. The read-only flag is only known once the transaction
+ * has started, so this datasource must sit behind a {@code LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    
+    private static final String LAG_QUERY = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+    
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter primaryFallbacks;
+    
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMs, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagMs = maxLagMs;
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMs)
+                    .description("Replication lag of a read replica in milliseconds, -1 when unreachable")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+        this.replicaReads = Counter.builder("datasource.reads")
+                .description("Read-only transactions by the datasource that served them")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.primaryFallbacks = Counter.builder("datasource.reads")
+                .description("Read-only transactions by the datasource that served them")
+                .tag("target", "primary")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTarget().getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTarget().getConnection(username, password);
+    }
+    
+    private DataSource determineTarget() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary;
+        }
+        
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                replicaReads.increment();
+                return replica.dataSource;
+            }
+        }
+        primaryFallbacks.increment();
+        return primary;
+    }
+    
+    /**
+     * Measures the lag of every replica and takes replicas out of rotation when they are behind
+     * by more than the bound or cannot be reached
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:1000}")
+    public void refreshLag() {
+        for (Replica replica : replicas) {
+            long lagMs = measureLag(replica);
+            boolean available = lagMs >= 0 && lagMs <= maxLagMs;
+            if (available != replica.available) {
+                log.warn("Replica {} is now {} (lag {} ms, bound {} ms)",
+                        replica.name, available ? "in rotation" : "out of rotation", lagMs, maxLagMs);
+            }
+            replica.lagMs = lagMs;
+            replica.available = available;
+        }
+    }
+    
+    private long measureLag(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        } catch (SQLException e) {
+            log.debug("Lag check failed for replica {}: {}", replica.name, e.getMessage());
+            return -1;
+        }
+    }
+    
+    @Override
+    public void destroy() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+    
+    private static final class Replica {
+        
+        private final String name;
+        private final DataSource dataSource;
+        
+        // Replicas start out of rotation until their first lag check has passed
+        private volatile boolean available;
+        private volatile long lagMs = -1;
+        
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
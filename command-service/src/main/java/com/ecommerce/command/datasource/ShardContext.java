@@ -0,0 +1,59 @@
+package com.ecommerce.command.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard of the current thread for {@link ShardRoutingDataSource}. Work outside any
+ * shard scope goes to shard 0, which also holds the data that is not sharded.
+ */
+public final class ShardContext {
+    
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+    
+    private ShardContext() {
+    }
+    
+    public static Integer current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Runs work against the given shard. Must be called outside a transaction, since a transaction
+     * keeps the connection it started with.
+     * @param shard The shard index
+     * @param work The work to run
+     * @return The result of the work
+     */
+    public static <T> T call(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+    
+    public static void run(int shard, Runnable work) {
+        call(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+    
+    static void set(int shard) {
+        CURRENT.set(shard);
+    }
+    
+    static void clear() {
+        CURRENT.remove();
+    }
+    
+    private static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.command.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The workload pools of shards 1..n, keyed by shard. Shard 0's pools are the
+ * {@code workloadRoutingDataSource} bean; these belong to this bean and are closed with it.
+ */
+public class ShardPools implements DisposableBean {
+    
+    private final Map<Integer, WorkloadRoutingDataSource> shards;
+    
+    public ShardPools(Map<Integer, WorkloadRoutingDataSource> shards) {
+        this.shards = Collections.unmodifiableMap(new TreeMap<>(shards));
+    }
+    
+    public Map<Integer, WorkloadRoutingDataSource> getShards() {
+        return shards;
+    }
+    
+    @Override
+    public void destroy() throws IOException {
+        for (WorkloadRoutingDataSource pools : shards.values()) {
+            pools.destroy();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.command.datasource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Decides which shard holds a product, together with its inventory and tags. Without sharding
+ * there is a single shard and every product lives on it.
+ */
+public class ShardRouter {
+    
+    private final ConsistentHashRing ring;
+    private final boolean enabled;
+    
+    public ShardRouter(ConsistentHashRing ring, boolean enabled) {
+        this.ring = ring;
+        this.enabled = enabled;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public int getShards() {
+        return ring.getShards();
+    }
+    
+    public int shardFor(Long productId) {
+        return productId == null ? 0 : ring.shardFor(productId);
+    }
+    
+    /**
+     * Groups values by the shard of the product they belong to, in shard order
+     * @param values The values to group
+     * @param productId Extracts the product ID of a value
+     * @return The values of each shard that has any
+     */
+    public <T> Map<Integer, List<T>> groupByShard(Collection<T> values, Function<T, Long> productId) {
+        Map<Integer, List<T>> groups = new TreeMap<>();
+        for (T value : values) {
+            groups.computeIfAbsent(shardFor(productId.apply(value)), shard -> new ArrayList<>()).add(value);
+        }
+        return groups;
+    }
+}
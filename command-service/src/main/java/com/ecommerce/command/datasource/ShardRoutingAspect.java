@@ -0,0 +1,58 @@
+package com.ecommerce.command.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sets the shard before the transaction interceptor runs, so the transaction's connection is
+ * taken from the shard that holds the product. Binding {@link ShardedBy} needs Spring's
+ * ExposeInvocationInterceptor, which sits at the highest precedence, to run first.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ShardRoutingAspect {
+    
+    private final ShardRouter shardRouter;
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+    
+    public ShardRoutingAspect(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+    
+    @Around("@annotation(shardedBy)")
+    public Object routeToShard(ProceedingJoinPoint joinPoint, ShardedBy shardedBy) throws Throwable {
+        if (ShardContext.current() != null) {
+            return joinPoint.proceed();
+        }
+        
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodBasedEvaluationContext context =
+                new MethodBasedEvaluationContext(null, method, joinPoint.getArgs(), parameterNameDiscoverer);
+        Long productId = expressions.computeIfAbsent(shardedBy.value(), parser::parseExpression)
+                .getValue(context, Long.class);
+        
+        ShardContext.set(shardRouter.shardFor(productId));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.clear();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.command.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections from the shard of the current thread. Shard 0 is the primary database,
+ * with its workload pools and read replicas; the other shards only have workload pools, which
+ * are owned by {@link ShardPools}.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
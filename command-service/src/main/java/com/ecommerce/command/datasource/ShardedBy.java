@@ -0,0 +1,18 @@
+package com.ecommerce.command.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Routes the database work of a method to the shard of a product. The value is a SpEL expression
+ * over the method arguments that yields the product ID, e.g. {@code "#productId"}. When calls are
+ * nested, the outermost shard wins, because the transaction already holds a connection to it.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardedBy {
+    
+    String value();
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.command.datasource;
+
+/**
+ * Workloads that get their own connection pool, so one of them cannot starve the others.
+ */
+public enum Workload {
+    ORDERS,
+    CATALOG,
+    BULK,
+    OUTBOX;
+    
+    public String poolName() {
+        return name().toLowerCase();
+    }
+}
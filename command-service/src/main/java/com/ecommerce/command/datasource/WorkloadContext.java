@@ -0,0 +1,24 @@
+package com.ecommerce.command.datasource;
+
+/**
+ * Holds the workload of the current thread for {@link WorkloadRoutingDataSource}.
+ */
+public final class WorkloadContext {
+    
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+    
+    private WorkloadContext() {
+    }
+    
+    public static Workload current() {
+        return CURRENT.get();
+    }
+    
+    static void set(Workload workload) {
+        CURRENT.set(workload);
+    }
+    
+    static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.command.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Routes the database work of a bean or method to the connection pool of a workload.
+ * A method-level annotation overrides the one on its class. When calls are nested, the outermost
+ * workload wins, because the transaction already holds a connection from that pool.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WorkloadPool {
+    
+    Workload value();
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.command.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Sets the workload before the transaction interceptor runs, so the transaction's connection
+ * is taken from the right pool.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkloadPoolAspect {
+    
+    @Around("@within(com.ecommerce.command.datasource.WorkloadPool) || @annotation(com.ecommerce.command.datasource.WorkloadPool)")
+    public Object routeToWorkloadPool(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (WorkloadContext.current() != null) {
+            return joinPoint.proceed();
+        }
+        
+        WorkloadContext.set(resolveWorkload(joinPoint));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.clear();
+        }
+    }
+    
+    private Workload resolveWorkload(ProceedingJoinPoint joinPoint) {
+        Class<?> targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+        Method method = AopUtils.getMostSpecificMethod(((MethodSignature) joinPoint.getSignature()).getMethod(), targetClass);
+        WorkloadPool workloadPool = AnnotatedElementUtils.findMergedAnnotation(method, WorkloadPool.class);
+        if (workloadPool == null) {
+            workloadPool = AnnotatedElementUtils.findMergedAnnotation(targetClass, WorkloadPool.class);
+        }
+        return workloadPool.value();
+    }
+}
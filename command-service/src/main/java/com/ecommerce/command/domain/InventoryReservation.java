@@ -0,0 +1,105 @@
+package com.ecommerce.command.domain;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+
+@Entity
+@Table(name = "inventory_reservations")
+public class InventoryReservation {
+    
+    public enum Status {
+        PENDING,
+        CONFIRMED,
+        RELEASED
+    }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "order_number", nullable = false, length = 50)
+    private String orderNumber;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+    
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private ZonedDateTime updatedAt;
+    
+    @PrePersist
+    public void prePersist() {
+        createdAt = ZonedDateTime.now();
+    }
+    
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = ZonedDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+    
+    public void setOrderNumber(String orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public ZonedDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(ZonedDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public ZonedDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(ZonedDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ecommerce.command.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An immutable amount of money held as a count of minor units (cents), matching the scale of the
+ * {@code numeric(12,2)} price and total columns. Arithmetic is exact: sums and products that do
+ * not fit in a {@code long} throw {@link ArithmeticException} instead of wrapping, and a
+ * {@link BigDecimal} with more than two decimals is only accepted with an explicit rounding mode.
+ */
+public final class Money implements Comparable<Money> {
+    
+    public static final int SCALE = 2;
+    
+    public static final Money ZERO = new Money(0);
+    
+    private final long minorUnits;
+    
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+    
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+    
+    /**
+     * @param amount An amount with at most two decimals
+     * @throws ArithmeticException If the amount has more than two significant decimals or does not fit
+     */
+    public static Money of(BigDecimal amount) {
+        return of(amount, RoundingMode.UNNECESSARY);
+    }
+    
+    /**
+     * @param amount Any amount
+     * @param rounding How to round the amount to two decimals
+     * @throws ArithmeticException If the rounded amount does not fit, or rounding is needed but UNNECESSARY
+     */
+    public static Money of(BigDecimal amount, RoundingMode rounding) {
+        return ofMinorUnits(amount.setScale(SCALE, rounding).unscaledValue().longValueExact());
+    }
+    
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+    
+    public Money plus(Money other) {
+        return ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+    
+    public Money minus(Money other) {
+        return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+    
+    public Money times(long quantity) {
+        return ofMinorUnits(Math.multiplyExact(minorUnits, quantity));
+    }
+    
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+    
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+    
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.minorUnits == minorUnits;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+    
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -1,8 +1,8 @@
 package com.ecommerce.command.domain;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,13 +14,15 @@ public class Order {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(name = "order_number", unique = true, nullable = false, length = 50)
+    @Column(name = "order_number", nullable = false, length = 50)
     private String orderNumber;
     
+    // Kept up to date as items are added, removed or repriced, never recomputed on the way
     @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
-    private BigDecimal totalAmount;
+    private Money totalAmount = Money.ZERO;
     
-    @Column(name = "created_at")
+    // Partition key; the primary key in the database is (id, created_at)
+    @Column(name = "created_at", nullable = false)
     private ZonedDateTime createdAt;
     
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -28,26 +30,41 @@ public class Order {
     
     @PrePersist
     public void prePersist() {
-        createdAt = ZonedDateTime.now();
+        // Truncated to the column precision, as items reference the order by (id, created_at)
+        createdAt = ZonedDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        items.forEach(item -> item.setOrderCreatedAt(createdAt));
     }
     
     // Helper methods
     public void addItem(OrderItem item) {
         items.add(item);
         item.setOrder(this);
-        recalculateTotalAmount();
+        totalAmount = totalAmount.plus(lineTotal(item));
     }
     
     public void removeItem(OrderItem item) {
-        items.remove(item);
+        if (items.remove(item)) {
+            totalAmount = totalAmount.minus(lineTotal(item));
+        }
         item.setOrder(null);
-        recalculateTotalAmount();
     }
     
     public void recalculateTotalAmount() {
-        this.totalAmount = items.stream()
-                .map(OrderItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long total = 0;
+        for (OrderItem item : items) {
+            total = Math.addExact(total, lineTotal(item).getMinorUnits());
+        }
+        this.totalAmount = Money.ofMinorUnits(total);
+    }
+    
+    // Called by an item of this order whose quantity or unit price changed
+    void itemTotalChanged(Money previous, Money current) {
+        totalAmount = totalAmount.minus(previous == null ? Money.ZERO : previous)
+                .plus(current == null ? Money.ZERO : current);
+    }
+    
+    private static Money lineTotal(OrderItem item) {
+        return item.getTotalPrice() == null ? Money.ZERO : item.getTotalPrice();
     }
     
     // Getters and Setters
@@ -67,11 +84,11 @@ public class Order {
         this.orderNumber = orderNumber;
     }
     
-    public BigDecimal getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
     
-    public void setTotalAmount(BigDecimal totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
     
@@ -89,5 +106,6 @@ public class Order {
     
     public void setItems(List<OrderItem> items) {
         this.items = items;
+        recalculateTotalAmount();
     }
 }
@@ -1,7 +1,7 @@
 package com.ecommerce.command.domain;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
+import java.time.ZonedDateTime;
 
 @Entity
 @Table(name = "order_items")
@@ -11,27 +11,35 @@ public class OrderItem {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
     private Order order;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
     
+    // Creation time of the order; partition key of order_items and part of its order reference
+    @Column(name = "order_created_at", nullable = false)
+    private ZonedDateTime orderCreatedAt;
+    
     @Column(nullable = false)
     private Integer quantity;
     
     @Column(name = "unit_price", nullable = false, precision = 12, scale = 2)
-    private BigDecimal unitPrice;
+    private Money unitPrice;
     
     @Column(name = "total_price", nullable = false, precision = 12, scale = 2)
-    private BigDecimal totalPrice;
+    private Money totalPrice;
     
     // Business logic methods
     public void calculateTotalPrice() {
         if (quantity != null && unitPrice != null) {
-            this.totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            Money previous = totalPrice;
+            this.totalPrice = unitPrice.times(quantity);
+            if (order != null) {
+                order.itemTotalChanged(previous, totalPrice);
+            }
         }
     }
     
@@ -52,6 +60,14 @@ public class OrderItem {
         this.order = order;
     }
     
+    public ZonedDateTime getOrderCreatedAt() {
+        return orderCreatedAt;
+    }
+    
+    public void setOrderCreatedAt(ZonedDateTime orderCreatedAt) {
+        this.orderCreatedAt = orderCreatedAt;
+    }
+    
     public Product getProduct() {
         return product;
     }
@@ -72,20 +88,24 @@ public class OrderItem {
         calculateTotalPrice();
     }
     
-    public BigDecimal getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
     
-    public void setUnitPrice(BigDecimal unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
         calculateTotalPrice();
     }
     
-    public BigDecimal getTotalPrice() {
+    public Money getTotalPrice() {
         return totalPrice;
     }
     
-    public void setTotalPrice(BigDecimal totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
+        Money previous = this.totalPrice;
         this.totalPrice = totalPrice;
+        if (order != null) {
+            order.itemTotalChanged(previous, totalPrice);
+        }
     }
 }
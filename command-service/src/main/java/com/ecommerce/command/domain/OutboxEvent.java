@@ -1,6 +1,8 @@
 package com.ecommerce.command.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnTransformer;
+
 import java.time.ZonedDateTime;
 
 @Entity
@@ -20,7 +22,9 @@ public class OutboxEvent {
     @Column(name = "event_type", nullable = false, length = 100)
     private String eventType;
     
+    // PostgreSQL does not cast a varchar parameter to jsonb implicitly
     @Column(nullable = false, columnDefinition = "jsonb")
+    @ColumnTransformer(write = "CAST(? AS jsonb)")
     private String payload;
     
     @Column(name = "created_at")
@@ -32,6 +36,9 @@ public class OutboxEvent {
     @Column(name = "processed_at")
     private ZonedDateTime processedAt;
     
+    @Column(name = "trace_parent", length = 55)
+    private String traceParent;
+    
     @PrePersist
     public void prePersist() {
         createdAt = ZonedDateTime.now();
@@ -102,6 +109,14 @@ public class OutboxEvent {
         this.processedAt = processedAt;
     }
     
+    public String getTraceParent() {
+        return traceParent;
+    }
+    
+    public void setTraceParent(String traceParent) {
+        this.traceParent = traceParent;
+    }
+    
     // Helper method to mark as processed
     public void markAsProcessed() {
         this.processed = true;
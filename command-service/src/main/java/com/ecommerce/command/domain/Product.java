@@ -1,6 +1,13 @@
 package com.ecommerce.command.domain;
 
+import com.ecommerce.command.persistence.ProductIdGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.HashSet;
@@ -8,12 +15,28 @@ import java.util.Set;
 
 @Entity
 @Table(name = "products")
+@NamedEntityGraph(name = Product.WITH_TAGS,
+        attributeNodes = @NamedAttributeNode(value = "tags", subgraph = "tags"),
+        subgraphs = @NamedSubgraph(name = "tags", attributeNodes = @NamedAttributeNode("tag")))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Product {
     
+    // Fetch plan for full snapshots: the product with its tags and their names
+    public static final String WITH_TAGS = "Product.withTags";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "product-id")
+    @GenericGenerator(name = "product-id", type = ProductIdGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "products_id_seq"),
+            @Parameter(name = "increment_size", value = "1")})
     private Long id;
     
+    // Set when the product registry allocated the ID up front to pick the product's shard
+    @Transient
+    private Long allocatedId;
+    
     @Column(unique = true, nullable = false, length = 50)
     private String sku;
     
@@ -35,9 +58,6 @@ public class Product {
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<ProductTag> tags = new HashSet<>();
     
-    @OneToOne(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
-    private Inventory inventory;
-    
     @PrePersist
     public void prePersist() {
         createdAt = ZonedDateTime.now();
@@ -58,6 +78,15 @@ public class Product {
         this.id = id;
     }
     
+    @JsonIgnore
+    public Long getAllocatedId() {
+        return allocatedId;
+    }
+    
+    public void setAllocatedId(Long allocatedId) {
+        this.allocatedId = allocatedId;
+    }
+    
     public String getSku() {
         return sku;
     }
@@ -114,14 +143,6 @@ public class Product {
         this.tags = tags;
     }
     
-    public Inventory getInventory() {
-        return inventory;
-    }
-    
-    public void setInventory(Inventory inventory) {
-        this.inventory = inventory;
-    }
-    
     // Helper methods
     public void addTag(Tag tag, String value) {
         ProductTag productTag = new ProductTag();
@@ -134,15 +155,4 @@ public class Product {
     public void removeTag(Tag tag) {
         tags.removeIf(productTag -> productTag.getTag().equals(tag));
     }
-    
-    public void updateInventory(Inventory newInventory) {
-        if (this.inventory == null) {
-            this.inventory = newInventory;
-            newInventory.setProduct(this);
-        } else {
-            this.inventory.setQuantity(newInventory.getQuantity());
-            this.inventory.setVersion(this.inventory.getVersion() + 1);
-            this.inventory.setUpdatedAt(ZonedDateTime.now());
-        }
-    }
 }
@@ -1,24 +1,32 @@
 package com.ecommerce.command.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.ZonedDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "tags")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tag")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Tag {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(nullable = false, length = 100)
+    @Column(unique = true, nullable = false, length = 100)
     private String name;
     
     @Column(name = "created_at")
     private ZonedDateTime createdAt;
     
+    @JsonIgnore
     @OneToMany(mappedBy = "tag")
     private Set<ProductTag> productTags = new HashSet<>();
     
@@ -0,0 +1,36 @@
+package com.ecommerce.command.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkTagRequest {
+    @NotNull(message = "Tag cannot be null")
+    @Valid
+    private TagDto tag;
+    
+    @NotEmpty(message = "Product IDs cannot be empty")
+    @Size(max = 10000, message = "At most 10000 products can be tagged per request")
+    private List<Long> productIds = new ArrayList<>();
+    
+    // Getters and Setters
+    public TagDto getTag() {
+        return tag;
+    }
+    
+    public void setTag(TagDto tag) {
+        this.tag = tag;
+    }
+    
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+    
+    public void setProductIds(List<Long> productIds) {
+        this.productIds = productIds;
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.command.dto;
+
+import java.util.List;
+
+public class BulkTagResponse {
+    private List<Long> productIds;
+    private List<Long> tagIds;
+    private String status;
+    private String message;
+    
+    // Constructors
+    public BulkTagResponse() {
+    }
+    
+    public BulkTagResponse(List<Long> productIds, List<Long> tagIds, String status, String message) {
+        this.productIds = productIds;
+        this.tagIds = tagIds;
+        this.status = status;
+        this.message = message;
+    }
+    
+    // Static factory methods
+    public static BulkTagResponse replaced(Long productId, List<Long> tagIds) {
+        return new BulkTagResponse(List.of(productId), tagIds, "tags_replaced", "Tags replaced successfully");
+    }
+    
+    public static BulkTagResponse merged(Long productId, List<Long> tagIds) {
+        return new BulkTagResponse(List.of(productId), tagIds, "tags_merged", "Tags merged successfully");
+    }
+    
+    public static BulkTagResponse applied(List<Long> productIds, Long tagId) {
+        return new BulkTagResponse(productIds, List.of(tagId), "tag_applied",
+                String.format("Tag applied to %d products", productIds.size()));
+    }
+    
+    // Getters and Setters
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+    
+    public void setProductIds(List<Long> productIds) {
+        this.productIds = productIds;
+    }
+    
+    public List<Long> getTagIds() {
+        return tagIds;
+    }
+    
+    public void setTagIds(List<Long> tagIds) {
+        this.tagIds = tagIds;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
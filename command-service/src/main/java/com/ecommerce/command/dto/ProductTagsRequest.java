@@ -0,0 +1,22 @@
+package com.ecommerce.command.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductTagsRequest {
+    @NotNull(message = "Tags cannot be null")
+    @Valid
+    private List<TagDto> tags = new ArrayList<>();
+    
+    // Getters and Setters
+    public List<TagDto> getTags() {
+        return tags;
+    }
+    
+    public void setTags(List<TagDto> tags) {
+        this.tags = tags;
+    }
+}
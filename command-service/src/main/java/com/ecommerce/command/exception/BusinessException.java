@@ -0,0 +1,12 @@
+package com.ecommerce.command.exception;
+
+/**
+ * Base class for expected business outcomes that are reported to the client.
+ * No stack trace is captured: these are thrown on the hot path and never logged with one.
+ */
+public abstract class BusinessException extends RuntimeException {
+    
+    protected BusinessException(String message) {
+        super(message, null, false, false);
+    }
+}
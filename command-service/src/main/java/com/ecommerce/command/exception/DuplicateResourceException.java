@@ -1,6 +1,6 @@
 package com.ecommerce.command.exception;
 
-public class DuplicateResourceException extends RuntimeException {
+public class DuplicateResourceException extends BusinessException {
     
     private String resourceName;
     private String fieldName;
@@ -1,6 +1,6 @@
 package com.ecommerce.command.exception;
 
-public class InsufficientInventoryException extends RuntimeException {
+public class InsufficientInventoryException extends BusinessException {
     
     private Long productId;
     private Integer requested;
@@ -1,6 +1,6 @@
 package com.ecommerce.command.exception;
 
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends BusinessException {
     
     private String resourceName;
     private String fieldName;
@@ -0,0 +1,15 @@
+package com.ecommerce.command.exception;
+
+public class ServiceOverloadedException extends BusinessException {
+    
+    private final long retryAfterSeconds;
+    
+    public ServiceOverloadedException(String reason, long retryAfterSeconds) {
+        super(String.format("Service is overloaded (%s). Retry after %d seconds", reason, retryAfterSeconds));
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
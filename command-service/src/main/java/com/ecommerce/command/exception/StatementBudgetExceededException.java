@@ -0,0 +1,8 @@
+package com.ecommerce.command.exception;
+
+public class StatementBudgetExceededException extends RuntimeException {
+    
+    public StatementBudgetExceededException(String command, long statements, long budget) {
+        super(String.format("%s issued %d SQL statements, budget is %d", command, statements, budget));
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.command.instrumentation;
+
+/**
+ * Running totals of the SQL executed on the current thread. Callers take a {@link Snapshot}
+ * before a unit of work and subtract it afterwards, so nested units are attributed correctly.
+ */
+public final class SqlActivity {
+    
+    private static final ThreadLocal<SqlActivity> CURRENT = ThreadLocal.withInitial(SqlActivity::new);
+    
+    private long statements;
+    private long rows;
+    private long nanos;
+    
+    private SqlActivity() {
+    }
+    
+    /**
+     * Returns the totals of the current thread.
+     */
+    public static Snapshot snapshot() {
+        SqlActivity activity = CURRENT.get();
+        return new Snapshot(activity.statements, activity.rows, activity.nanos);
+    }
+    
+    static void recordStatements(long statements, long nanos) {
+        SqlActivity activity = CURRENT.get();
+        activity.statements += statements;
+        activity.nanos += nanos;
+    }
+    
+    static void recordRows(long rows) {
+        CURRENT.get().rows += rows;
+    }
+    
+    public record Snapshot(long statements, long rows, long nanos) {
+        
+        /**
+         * Returns the activity between an earlier snapshot and this one.
+         */
+        public Snapshot since(Snapshot before) {
+            return new Snapshot(statements - before.statements, rows - before.rows, nanos - before.nanos);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.ecommerce.command.instrumentation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Times every statement executed through the datasource proxy. Each statement is recorded in the
+ * thread's {@link SqlActivity}, in the per-statement timer and in {@link SqlStatementStatistics}.
+ * Rows are the update count of writes and, when result sets are proxied, the rows read by queries.
+ */
+public class SqlExecutionListener implements QueryExecutionListener, MethodExecutionListener {
+    
+    private static final String START_NANOS = "startNanos";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    private final MeterRegistry meterRegistry;
+    private final SqlStatementStatistics statementStatistics;
+    
+    public SqlExecutionListener(MeterRegistry meterRegistry, SqlStatementStatistics statementStatistics) {
+        this.meterRegistry = meterRegistry;
+        this.statementStatistics = statementStatistics;
+    }
+    
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+    
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long nanos = start == null ? TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime()) : System.nanoTime() - start;
+        long statements = execInfo.isBatch() ? Math.max(1, execInfo.getBatchSize()) : queryInfoList.size();
+        long rows = updateCount(execInfo.getResult());
+        
+        SqlActivity.recordStatements(statements, nanos);
+        SqlActivity.recordRows(rows);
+        
+        // A batch or multi-statement execution is recorded once, under its first statement
+        String sql = queryInfoList.isEmpty() ? "" : WHITESPACE.matcher(queryInfoList.get(0).getQuery()).replaceAll(" ").trim();
+        statementStatistics.record(sql, nanos, rows);
+        Timer.builder("sql.statement.time")
+                .tag("kind", kindOf(sql))
+                .tag("outcome", execInfo.isSuccess() ? "success" : "error")
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+    
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        // Only invoked for result sets when they are proxied
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            SqlActivity.recordRows(1);
+        }
+    }
+    
+    private static long updateCount(Object result) {
+        if (result instanceof Number count) {
+            return Math.max(0, count.longValue());
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+    
+    private static String kindOf(String sql) {
+        int end = sql.indexOf(' ');
+        String keyword = (end < 0 ? sql : sql.substring(0, end)).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete", "with" -> keyword;
+            default -> "other";
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.command.instrumentation;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Attributes the SQL statements, rows and time of every service method call to that method.
+ * Runs outside the transaction interceptor so the commit-time flush is included. Nested calls
+ * are counted in both the caller and the callee.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@ConditionalOnProperty(name = "sql-instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMethodAspect {
+    
+    private final MeterRegistry meterRegistry;
+    
+    public SqlMethodAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Around("within(com.ecommerce.command.service..*) && within(@org.springframework.stereotype.Service *) && execution(public * *(..))")
+    public Object attribute(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        // Reactive methods run their SQL after returning, on another thread, and never through JDBC
+        if (Publisher.class.isAssignableFrom(method.getReturnType())) {
+            return joinPoint.proceed();
+        }
+        
+        SqlActivity.Snapshot before = SqlActivity.snapshot();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            SqlActivity.Snapshot activity = SqlActivity.snapshot().since(before);
+            String name = joinPoint.getTarget().getClass().getSimpleName() + "." + method.getName();
+            DistributionSummary.builder("sql.method.statements")
+                    .tag("method", name)
+                    .register(meterRegistry)
+                    .record(activity.statements());
+            DistributionSummary.builder("sql.method.rows")
+                    .tag("method", name)
+                    .register(meterRegistry)
+                    .record(activity.rows());
+            Timer.builder("sql.method.time")
+                    .tag("method", name)
+                    .register(meterRegistry)
+                    .record(activity.nanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.command.instrumentation;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Attributes the SQL statements, rows and time of a request to its endpoint. Only SQL run on the
+ * request thread is seen, which covers every blocking endpoint.
+ */
+public class SqlRequestInterceptor implements AsyncHandlerInterceptor {
+    
+    static final String START_ATTRIBUTE = SqlRequestInterceptor.class.getName() + ".start";
+    
+    private final MeterRegistry meterRegistry;
+    
+    public SqlRequestInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            request.setAttribute(START_ATTRIBUTE, SqlActivity.snapshot());
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(START_ATTRIBUTE) instanceof SqlActivity.Snapshot start)) {
+            return;
+        }
+        request.removeAttribute(START_ATTRIBUTE);
+        SqlActivity.Snapshot activity = SqlActivity.snapshot().since(start);
+        
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("sql.request.statements")
+                .tag("uri", uri)
+                .tag("method", request.getMethod())
+                .register(meterRegistry)
+                .record(activity.statements());
+        DistributionSummary.builder("sql.request.rows")
+                .tag("uri", uri)
+                .tag("method", request.getMethod())
+                .register(meterRegistry)
+                .record(activity.rows());
+        Timer.builder("sql.request.time")
+                .tag("uri", uri)
+                .tag("method", request.getMethod())
+                .register(meterRegistry)
+                .record(activity.nanos(), TimeUnit.NANOSECONDS);
+    }
+}
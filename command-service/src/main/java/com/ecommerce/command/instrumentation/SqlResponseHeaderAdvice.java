@@ -0,0 +1,40 @@
+package com.ecommerce.command.instrumentation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Debug aid: adds the SQL activity of the request so far to the response headers, just before
+ * the body is written. By then the service call, including its commit, has completed.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "sql-instrumentation.response-headers", havingValue = "true")
+public class SqlResponseHeaderAdvice implements ResponseBodyAdvice<Object> {
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(SqlRequestInterceptor.START_ATTRIBUTE)
+                        instanceof SqlActivity.Snapshot start) {
+            SqlActivity.Snapshot activity = SqlActivity.snapshot().since(start);
+            response.getHeaders().set("X-SQL-Statements", Long.toString(activity.statements()));
+            response.getHeaders().set("X-SQL-Rows", Long.toString(activity.rows()));
+            response.getHeaders().set("X-SQL-Time-Ms", String.format("%.3f", activity.nanos() / 1e6));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.command.instrumentation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution count, time and rows of every distinct SQL string, for the slowest-statements view.
+ * Bounded by size, so rarely executed statements are evicted first.
+ */
+@Component
+public class SqlStatementStatistics {
+    
+    private final Cache<String, StatementStats> statsBySql;
+    
+    public SqlStatementStatistics(@Value("${sql-instrumentation.tracked-statements:500}") long trackedStatements) {
+        this.statsBySql = Caffeine.newBuilder()
+                .maximumSize(trackedStatements)
+                .build();
+    }
+    
+    void record(String sql, long nanos, long rows) {
+        statsBySql.get(sql, s -> new StatementStats()).record(nanos, rows);
+    }
+    
+    /**
+     * Returns the statements with the highest maximum or total execution time
+     * @param limit The number of statements to return
+     * @param byTotal Whether to rank by total instead of maximum execution time
+     * @return One entry per statement, slowest first
+     */
+    public List<Map<String, Object>> slowest(int limit, boolean byTotal) {
+        Comparator<Map.Entry<String, StatementStats>> order = Comparator.comparingLong(
+                entry -> byTotal ? entry.getValue().totalNanos.sum() : entry.getValue().maxNanos.get());
+        return statsBySql.asMap().entrySet().stream()
+                .sorted(order.reversed())
+                .limit(limit)
+                .map(entry -> entry.getValue().describe(entry.getKey()))
+                .toList();
+    }
+    
+    public void reset() {
+        statsBySql.invalidateAll();
+    }
+    
+    private static final class StatementStats {
+        
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        
+        void record(long nanos, long statementRows) {
+            count.increment();
+            totalNanos.add(nanos);
+            rows.add(statementRows);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+        
+        Map<String, Object> describe(String sql) {
+            long executions = count.sum();
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("sql", sql);
+            description.put("count", executions);
+            description.put("totalMs", totalNanos.sum() / 1e6);
+            description.put("meanMs", executions == 0 ? 0 : totalNanos.sum() / 1e6 / executions);
+            description.put("maxMs", maxNanos.get() / 1e6);
+            description.put("rowsAffected", rows.sum());
+            return description;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.command.instrumentation;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/sqlstatements}: the slowest SQL statements seen by the datasource proxy, next to
+ * Hibernate's own statistics of the slowest HQL and native queries.
+ */
+@Component
+@Endpoint(id = "sqlstatements")
+@ConditionalOnProperty(name = "sql-instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementsEndpoint {
+    
+    private static final int DEFAULT_LIMIT = 20;
+    
+    private final SqlStatementStatistics statementStatistics;
+    private final Statistics hibernateStatistics;
+    
+    public SqlStatementsEndpoint(SqlStatementStatistics statementStatistics, EntityManagerFactory entityManagerFactory) {
+        this.statementStatistics = statementStatistics;
+        this.hibernateStatistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    /**
+     * @param limit The number of statements to list, 20 by default
+     * @param sort {@code max} (default) or {@code total} execution time
+     */
+    @ReadOperation
+    public Map<String, Object> statements(@Nullable Integer limit, @Nullable String sort) {
+        int count = limit != null ? limit : DEFAULT_LIMIT;
+        boolean byTotal = "total".equalsIgnoreCase(sort);
+        
+        Map<String, Object> statements = new LinkedHashMap<>();
+        statements.put("jdbc", statementStatistics.slowest(count, byTotal));
+        statements.put("hibernate", slowestHibernateQueries(count, byTotal));
+        return statements;
+    }
+    
+    @DeleteOperation
+    public void reset() {
+        // Hibernate's statistics also back the hibernate.* meters, so only the proxy's are reset
+        statementStatistics.reset();
+    }
+    
+    private List<Map<String, Object>> slowestHibernateQueries(int limit, boolean byTotal) {
+        if (!hibernateStatistics.isStatisticsEnabled()) {
+            return List.of();
+        }
+        Comparator<Map<String, Object>> order = Comparator.comparingDouble(
+                query -> ((Number) query.get(byTotal ? "totalMs" : "maxMs")).doubleValue());
+        return Arrays.stream(hibernateStatistics.getQueries())
+                .map(this::describe)
+                .sorted(order.reversed())
+                .limit(limit)
+                .toList();
+    }
+    
+    private Map<String, Object> describe(String query) {
+        QueryStatistics stats = hibernateStatistics.getQueryStatistics(query);
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("query", query);
+        description.put("count", stats.getExecutionCount());
+        description.put("totalMs", stats.getExecutionTotalTime());
+        description.put("meanMs", stats.getExecutionAvgTimeAsDouble());
+        description.put("maxMs", stats.getExecutionMaxTime());
+        description.put("rows", stats.getExecutionRowCount());
+        return description;
+    }
+}
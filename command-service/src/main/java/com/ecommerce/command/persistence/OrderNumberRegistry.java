@@ -0,0 +1,49 @@
+package com.ecommerce.command.persistence;
+
+import com.ecommerce.command.datasource.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Claims order numbers in {@code order_numbers} on shard 0. The partitioned {@code orders} table
+ * can only enforce uniqueness together with the partition key, so this table is what keeps order
+ * numbers unique. A number that is already taken is skipped rather than failing the insert, and a
+ * claim made inside a transaction is rolled back with it.
+ */
+@Component
+public class OrderNumberRegistry {
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderNumberRegistry.class);
+    
+    public static final int MAX_ATTEMPTS = 5;
+    
+    private static final String CLAIM_SQL =
+            "INSERT INTO order_numbers (order_number) VALUES (?) ON CONFLICT (order_number) DO NOTHING";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public OrderNumberRegistry(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Claims the first free number among the candidates
+     * @param candidates Draws a candidate order number
+     * @return The claimed order number
+     * @throws IllegalStateException If none of {@link #MAX_ATTEMPTS} candidates was free
+     */
+    public String claim(Supplier<String> candidates) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            String candidate = candidates.get();
+            if (ShardContext.call(0, () -> jdbcTemplate.update(CLAIM_SQL, candidate)) == 1) {
+                return candidate;
+            }
+            log.debug("Order number {} is taken, drawing another", candidate);
+        }
+        throw new IllegalStateException("No free order number after " + MAX_ATTEMPTS + " attempts");
+    }
+}
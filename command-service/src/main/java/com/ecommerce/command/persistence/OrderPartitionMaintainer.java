@@ -0,0 +1,178 @@
+package com.ecommerce.command.persistence;
+
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code orders} and {@code order_items} in step with time.
+ * <p>
+ * Partitions are created {@code orders.partitions.months-ahead} months in advance, so inserts
+ * never meet a missing month. Partitions older than {@code orders.partitions.retention-months}
+ * are detached without blocking writes and moved to the {@code order_archive} schema, where
+ * they can be dumped and dropped; their claims in {@code order_numbers} are purged. Instances
+ * coordinate through an advisory lock, so only one of them maintains the partitions at a time.
+ */
+@Component
+public class OrderPartitionMaintainer {
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderPartitionMaintainer.class);
+    
+    private static final Pattern PARTITION_NAME = Pattern.compile("(?:orders|order_items)_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'p'yyyy_MM");
+    private static final long ADVISORY_LOCK_KEY = 0x6f72646572730001L;
+    private static final String ARCHIVE_SCHEMA = "order_archive";
+    
+    private static final String PARTITIONS_QUERY =
+            "SELECT c.relname, i.inhdetachpending FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent IN ('orders'::regclass, 'order_items'::regclass)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Counter created;
+    private final Counter archived;
+    
+    public OrderPartitionMaintainer(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${orders.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${orders.partitions.retention-months:24}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.created = Counter.builder("orders.partitions.created")
+                .description("Monthly order partitions created ahead of time")
+                .register(meterRegistry);
+        this.archived = Counter.builder("orders.partitions.archived")
+                .description("Monthly order partitions detached and moved to the archive schema")
+                .register(meterRegistry);
+    }
+    
+    @WorkloadPool(Workload.BULK)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${orders.partitions.maintenance-cron:0 0 3 * * *}", zone = "UTC")
+    public void maintain() {
+        // Detaching concurrently cannot run in a transaction, so one autocommit connection is used throughout
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!tryLock(connection)) {
+                log.debug("Order partitions are being maintained by another instance");
+                return null;
+            }
+            try {
+                createPartitions(connection);
+                archiveExpiredPartitions(connection);
+            } finally {
+                unlock(connection);
+            }
+            return null;
+        });
+    }
+    
+    private void createPartitions(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT create_order_partitions(CAST(now() AT TIME ZONE 'UTC' AS date), " + monthsAhead + ")")) {
+            rs.next();
+            int count = rs.getInt(1);
+            if (count > 0) {
+                created.increment(count);
+                log.info("Created order partitions for {} new months", count);
+            }
+        }
+    }
+    
+    private void archiveExpiredPartitions(Connection connection) throws SQLException {
+        Map<String, Boolean> attached = new HashMap<>();
+        TreeSet<YearMonth> months = new TreeSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(PARTITIONS_QUERY)) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                Matcher matcher = PARTITION_NAME.matcher(name);
+                if (matcher.matches()) {
+                    attached.put(name, rs.getBoolean(2));
+                    months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                }
+            }
+        }
+        
+        YearMonth oldestRetained = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths);
+        for (YearMonth month : months.headSet(oldestRetained)) {
+            String suffix = month.format(SUFFIX);
+            
+            // Items first: they reference the order partition, so their foreign key must go before it is detached
+            detach(connection, "order_items", "order_items_" + suffix, attached);
+            execute(connection, "ALTER TABLE IF EXISTS order_items_" + suffix + " DROP CONSTRAINT IF EXISTS fk_order_items_order");
+            detach(connection, "orders", "orders_" + suffix, attached);
+            
+            execute(connection, "ALTER TABLE IF EXISTS order_items_" + suffix + " SET SCHEMA " + ARCHIVE_SCHEMA);
+            execute(connection, "ALTER TABLE IF EXISTS orders_" + suffix + " SET SCHEMA " + ARCHIVE_SCHEMA);
+            archived.increment();
+            log.info("Archived order partitions for {}", month);
+        }
+        
+        // The date in a number keeps a purged claim from ever being drawn again
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM order_numbers WHERE created_at < ?")) {
+            statement.setObject(1, oldestRetained.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+            int purged = statement.executeUpdate();
+            if (purged > 0) {
+                log.info("Purged {} order number claims before {}", purged, oldestRetained);
+            }
+        }
+    }
+    
+    private void detach(Connection connection, String parent, String partition, Map<String, Boolean> attached)
+            throws SQLException {
+        Boolean detachPending = attached.get(partition);
+        if (detachPending == null) {
+            return;
+        }
+        // A concurrent detach that was interrupted has to be finalized before anything else
+        String mode = detachPending ? "FINALIZE" : "CONCURRENTLY";
+        execute(connection, "ALTER TABLE " + parent + " DETACH PARTITION " + partition + " " + mode);
+    }
+    
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_try_advisory_lock(" + ADVISORY_LOCK_KEY + ")")) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+    
+    private void unlock(Connection connection) throws SQLException {
+        execute(connection, "SELECT pg_advisory_unlock(" + ADVISORY_LOCK_KEY + ")");
+    }
+    
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.command.persistence;
+
+import com.ecommerce.command.domain.Product;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/**
+ * Takes product IDs from {@code products_id_seq}, unless the product already had its ID
+ * allocated by the product registry. Sharded products get their ID before they are persisted,
+ * because the ID decides which shard they are stored on.
+ */
+public class ProductIdGenerator extends SequenceStyleGenerator {
+    
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        if (object instanceof Product product && product.getAllocatedId() != null) {
+            return product.getAllocatedId();
+        }
+        return super.generate(session, object);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.command.persistence;
+
+import com.ecommerce.command.datasource.ShardContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Claims SKUs across all shards. Each shard only enforces SKU uniqueness for its own products,
+ * so the claim is made in {@code product_registry} on shard 0, which also allocates the product
+ * ID that decides the product's shard.
+ * <p>
+ * Claims are made in their own autocommit statement, outside any shard transaction.
+ */
+@Component
+public class ProductRegistry {
+    
+    private static final String CLAIM_SQL =
+            "INSERT INTO product_registry (sku, product_id) VALUES (?, nextval('products_id_seq')) " +
+            "ON CONFLICT (sku) DO NOTHING RETURNING product_id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public ProductRegistry(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Claims a SKU and allocates the ID of its product
+     * @param sku The SKU to claim
+     * @return The allocated product ID, or null if the SKU is already taken
+     */
+    public Long claim(String sku) {
+        List<Long> ids = ShardContext.call(0, () -> jdbcTemplate.queryForList(CLAIM_SQL, Long.class, sku));
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+    
+    /**
+     * Looks up the product that claimed a SKU
+     * @param sku The SKU to look up
+     * @return The product ID, or null if the SKU has not been claimed
+     */
+    public Long lookup(String sku) {
+        List<Long> ids = ShardContext.call(0, () -> jdbcTemplate.queryForList(
+                "SELECT product_id FROM product_registry WHERE sku = ?", Long.class, sku));
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+    
+    /**
+     * Gives up a claim whose product could not be created
+     * @param sku The claimed SKU
+     * @param productId The product ID allocated by the claim
+     */
+    public void release(String sku, Long productId) {
+        ShardContext.run(0, () -> jdbcTemplate.update(
+                "DELETE FROM product_registry WHERE sku = ? AND product_id = ?", sku, productId));
+    }
+}
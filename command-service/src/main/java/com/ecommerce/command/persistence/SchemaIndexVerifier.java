@@ -0,0 +1,98 @@
+package com.ecommerce.command.persistence;
+
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks at startup that the indexes the command paths rely on exist and are valid, on every
+ * shard.
+ * <p>
+ * Runs once all beans, including the Flyway migration, are initialized and before the web
+ * server accepts requests. A concurrent index build that failed leaves an invalid index, which
+ * the planner ignores, so invalid indexes are reported like missing ones.
+ */
+@Component
+public class SchemaIndexVerifier implements SmartInitializingSingleton {
+    
+    private static final Logger log = LoggerFactory.getLogger(SchemaIndexVerifier.class);
+    
+    // Keep in sync with the migrations in db/migration
+    private static final List<String> EXPECTED_INDEXES = List.of(
+            "ix_outbox_events_unprocessed",
+            "ux_inventory_product_id",
+            "ix_product_tags_tag_id",
+            "ux_tags_name",
+            "ix_order_items_order_id",
+            "ix_inventory_reservations_order_number",
+            "ix_inventory_reservations_pending");
+    
+    private static final String INDEX_QUERY =
+            "SELECT c.relname, i.indisvalid FROM pg_index i " +
+            "JOIN pg_class c ON c.oid = i.indexrelid " +
+            "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+            "WHERE n.nspname = current_schema()";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final boolean enabled;
+    private final boolean failOnMissing;
+    
+    public SchemaIndexVerifier(
+            JdbcTemplate jdbcTemplate,
+            ShardRouter shardRouter,
+            @Value("${schema.index-check.enabled:true}") boolean enabled,
+            @Value("${schema.index-check.fail-on-missing:true}") boolean failOnMissing) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+        this.failOnMissing = failOnMissing;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        
+        List<String> problems = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            Map<String, Boolean> indexes = ShardContext.call(shard, () -> {
+                Map<String, Boolean> found = new HashMap<>();
+                jdbcTemplate.query(INDEX_QUERY, rs -> {
+                    found.put(rs.getString(1), rs.getBoolean(2));
+                });
+                return found;
+            });
+            for (String index : EXPECTED_INDEXES) {
+                Boolean valid = indexes.get(index);
+                if (valid == null) {
+                    problems.add(index + " (missing on shard " + shard + ")");
+                } else if (!valid) {
+                    problems.add(index + " (invalid on shard " + shard + ")");
+                }
+            }
+        }
+        
+        if (problems.isEmpty()) {
+            log.info("All {} expected indexes are present on {} shards", EXPECTED_INDEXES.size(), shardRouter.getShards());
+            return;
+        }
+        
+        String message = "Expected indexes are missing or invalid: " + String.join(", ", problems);
+        if (failOnMissing) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+}
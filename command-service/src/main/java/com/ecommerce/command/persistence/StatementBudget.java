@@ -0,0 +1,19 @@
+package com.ecommerce.command.persistence;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how many SQL statements a command may issue. The value is a SpEL expression
+ * evaluated against the method arguments, e.g. {@code "3 + 5 * #request.items.size()"}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface StatementBudget {
+    
+    String value();
+}
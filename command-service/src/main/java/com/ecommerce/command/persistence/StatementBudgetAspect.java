@@ -0,0 +1,98 @@
+package com.ecommerce.command.persistence;
+
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.exception.StatementBudgetExceededException;
+import com.ecommerce.command.instrumentation.SqlActivity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compares the statements a command issued with its {@link StatementBudget}. Runs outside the
+ * transaction interceptor so the commit-time flush is counted too. Budgets may refer to the
+ * number of shards as {@code #shards}.
+ * <p>
+ * Statements are taken from {@link SqlActivity}, which the datasource proxy fills. It sees
+ * JdbcTemplate and native SQL as well as Hibernate's, so budgets are only enforced while SQL
+ * instrumentation is enabled.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "sql-instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class StatementBudgetAspect {
+    
+    private static final Logger log = LoggerFactory.getLogger(StatementBudgetAspect.class);
+    
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final ShardRouter shardRouter;
+    private final boolean failOnExceed;
+    
+    public StatementBudgetAspect(
+            MeterRegistry meterRegistry,
+            ShardRouter shardRouter,
+            @Value("${statement-budget.fail-on-exceed:false}") boolean failOnExceed) {
+        this.meterRegistry = meterRegistry;
+        this.shardRouter = shardRouter;
+        this.failOnExceed = failOnExceed;
+    }
+    
+    @Around("@annotation(statementBudget)")
+    public Object enforceBudget(ProceedingJoinPoint joinPoint, StatementBudget statementBudget) throws Throwable {
+        SqlActivity.Snapshot before = SqlActivity.snapshot();
+        Object result = joinPoint.proceed();
+        long statements = SqlActivity.snapshot().since(before).statements();
+        
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String command = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        DistributionSummary.builder("statements.per.command")
+                .tag("command", command)
+                .register(meterRegistry)
+                .record(statements);
+        
+        long budget = evaluateBudget(statementBudget.value(), method, joinPoint.getArgs());
+        if (statements > budget) {
+            Counter.builder("statement.budget.exceeded")
+                    .tag("command", command)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} issued {} SQL statements, budget is {}", command, statements, budget);
+            if (failOnExceed) {
+                throw new StatementBudgetExceededException(command, statements, budget);
+            }
+        }
+        return result;
+    }
+    
+    private long evaluateBudget(String expression, Method method, Object[] args) {
+        MethodBasedEvaluationContext context =
+                new MethodBasedEvaluationContext(null, method, args, parameterNameDiscoverer);
+        context.setVariable("shards", shardRouter.getShards());
+        Number budget = expressions.computeIfAbsent(expression, parser::parseExpression)
+                .getValue(context, Number.class);
+        return budget == null ? Long.MAX_VALUE : budget.longValue();
+    }
+}
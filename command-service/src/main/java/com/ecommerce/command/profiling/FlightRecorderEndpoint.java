@@ -0,0 +1,133 @@
+package com.ecommerce.command.profiling;
+
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/jfr}: flight recordings on demand. Like every actuator endpoint it is only served
+ * on {@code management.server.port}, which is not published beyond the host.
+ * <ul>
+ * <li>{@code GET /actuator/jfr} lists the recordings and the files written so far</li>
+ * <li>{@code POST /actuator/jfr/{name}} starts a recording, {@code {"durationSeconds": 60}} optional</li>
+ * <li>{@code DELETE /actuator/jfr/{name}} stops it and returns the summary of its file</li>
+ * <li>{@code POST /actuator/jfr} dumps the continuous recording and returns its summary</li>
+ * <li>{@code GET /actuator/jfr/{file}} summarizes a file written earlier</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "jfr")
+@ConditionalOnProperty(name = "profiling.enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecorderEndpoint {
+    
+    private final FlightRecorderService flightRecorderService;
+    private final String applicationPackage;
+    private final int topFrames;
+    
+    public FlightRecorderEndpoint(
+            FlightRecorderService flightRecorderService,
+            @Value("${profiling.summary.package:com.ecommerce.command}") String applicationPackage,
+            @Value("${profiling.summary.top-frames:20}") int topFrames) {
+        this.flightRecorderService = flightRecorderService;
+        this.applicationPackage = applicationPackage;
+        this.topFrames = topFrames;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> recordings() throws IOException {
+        List<Map<String, Object>> recordings = flightRecorderService.getRecordings().stream()
+                .map(FlightRecorderEndpoint::describe)
+                .toList();
+        List<Map<String, Object>> files = new ArrayList<>();
+        for (Path file : flightRecorderService.getFiles()) {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("file", file.getFileName().toString());
+            description.put("bytes", Files.size(file));
+            description.put("modified", Files.getLastModifiedTime(file).toInstant());
+            files.add(description);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("recordings", recordings);
+        result.put("files", files);
+        return result;
+    }
+    
+    @WriteOperation
+    public Map<String, Object> start(@Selector String name, @Nullable Long durationSeconds) throws IOException, ParseException {
+        Path file;
+        try {
+            file = flightRecorderService.start(name, durationSeconds != null ? Duration.ofSeconds(durationSeconds) : null);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", name);
+        result.put("file", file.getFileName().toString());
+        return result;
+    }
+    
+    @DeleteOperation
+    public Map<String, Object> stop(@Selector String name) throws IOException {
+        Path file;
+        try {
+            file = flightRecorderService.stop(name);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        return file != null ? summarize(file) : null;
+    }
+    
+    @WriteOperation
+    public Map<String, Object> dump() throws IOException {
+        try {
+            return summarize(flightRecorderService.dumpContinuous());
+        } catch (IllegalStateException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+    
+    @ReadOperation
+    public Map<String, Object> summary(@Selector String file) throws IOException {
+        Path path;
+        try {
+            path = flightRecorderService.recordingFile(file);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        return Files.exists(path) ? summarize(path) : null;
+    }
+    
+    private Map<String, Object> summarize(Path file) throws IOException {
+        return FlightRecordingSummary.summarize(file, applicationPackage, topFrames);
+    }
+    
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("name", recording.getName());
+        description.put("state", recording.getState().name().toLowerCase());
+        description.put("startTime", recording.getStartTime());
+        description.put("duration", recording.getDuration());
+        description.put("maxAge", recording.getMaxAge());
+        description.put("bytes", recording.getSize());
+        description.put("file", recording.getDestination() != null ? recording.getDestination().getFileName().toString() : null);
+        return description;
+    }
+}
@@ -0,0 +1,213 @@
+package com.ecommerce.command.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Runs JDK Flight Recorder inside the service. A continuous recording with the low-overhead
+ * {@code default} settings keeps the last {@code profiling.continuous.max-age-minutes} on disk, to
+ * be dumped after an incident. On-demand recordings use the {@code profile} settings with lower
+ * thresholds for lock contention, parking and socket reads, are streamed to disk while they run and
+ * stop by themselves after {@code profiling.max-duration-seconds}.
+ */
+@Component
+@ConditionalOnProperty(name = "profiling.enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecorderService implements DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(FlightRecorderService.class);
+    
+    static final String CONTINUOUS = "continuous";
+    
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    
+    // Blocking shorter than this is not worth a stack trace during an investigation
+    private static final String ON_DEMAND_THRESHOLD = "5 ms";
+    
+    private final ConcurrentMap<String, Recording> recordings = new ConcurrentHashMap<>();
+    private final Path directory;
+    private final boolean continuousEnabled;
+    private final Duration continuousMaxAge;
+    private final long continuousMaxSizeBytes;
+    private final Duration maxDuration;
+    private final int maxRecordings;
+    
+    public FlightRecorderService(
+            @Value("${profiling.directory:${java.io.tmpdir}/command-service-jfr}") String directory,
+            @Value("${profiling.continuous.enabled:true}") boolean continuousEnabled,
+            @Value("${profiling.continuous.max-age-minutes:30}") long continuousMaxAgeMinutes,
+            @Value("${profiling.continuous.max-size-mb:256}") long continuousMaxSizeMb,
+            @Value("${profiling.max-duration-seconds:300}") long maxDurationSeconds,
+            @Value("${profiling.max-recordings:2}") int maxRecordings) {
+        this.directory = Path.of(directory);
+        this.continuousEnabled = continuousEnabled;
+        this.continuousMaxAge = Duration.ofMinutes(continuousMaxAgeMinutes);
+        this.continuousMaxSizeBytes = continuousMaxSizeMb * 1024 * 1024;
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxRecordings = maxRecordings;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startContinuous() throws IOException, ParseException {
+        Files.createDirectories(directory);
+        if (!continuousEnabled) {
+            return;
+        }
+        Recording recording = new Recording(Configuration.getConfiguration("default"));
+        recording.setName(CONTINUOUS);
+        recording.setToDisk(true);
+        recording.setMaxAge(continuousMaxAge);
+        recording.setMaxSize(continuousMaxSizeBytes);
+        recording.start();
+        recordings.put(CONTINUOUS, recording);
+        log.info("Continuous flight recording started, keeping the last {}", continuousMaxAge);
+    }
+    
+    /**
+     * Starts an on-demand recording
+     * @param name The name of the recording, also used for its file
+     * @param duration How long to record, capped at {@code profiling.max-duration-seconds}
+     * @return The file the recording is written to when it stops
+     */
+    public Path start(String name, Duration duration) throws IOException, ParseException {
+        if (!name.matches("[A-Za-z0-9_-]+") || CONTINUOUS.equals(name)) {
+            throw new IllegalArgumentException("Invalid recording name: " + name);
+        }
+        if (activeOnDemand() >= maxRecordings) {
+            throw new IllegalStateException("Already running " + maxRecordings + " on-demand recordings");
+        }
+        Path file = directory.resolve(name + "-" + FILE_TIMESTAMP.format(Instant.now()) + ".jfr");
+        Recording recording = new Recording(onDemandSettings());
+        recording.setName(name);
+        recording.setToDisk(true);
+        recording.setDestination(file);
+        recording.setDuration(duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration);
+        if (recordings.putIfAbsent(name, recording) != null) {
+            recording.close();
+            throw new IllegalStateException("Recording " + name + " already exists");
+        }
+        recording.start();
+        log.info("Flight recording {} started for {}, writing to {}", name, recording.getDuration(), file);
+        return file;
+    }
+    
+    /**
+     * Stops an on-demand recording and writes its file
+     * @param name The name of the recording
+     * @return The recording's file, or null if there is no such recording
+     */
+    public Path stop(String name) {
+        if (CONTINUOUS.equals(name)) {
+            throw new IllegalArgumentException("The continuous recording is dumped, not stopped");
+        }
+        Recording recording = recordings.remove(name);
+        if (recording == null) {
+            return null;
+        }
+        Path file = recording.getDestination();
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        recording.close();
+        log.info("Flight recording {} stopped, written to {}", name, file);
+        return file;
+    }
+    
+    /**
+     * Copies what the continuous recording holds to a file, leaving it running
+     * @return The file written
+     */
+    public Path dumpContinuous() throws IOException {
+        Recording recording = recordings.get(CONTINUOUS);
+        if (recording == null) {
+            throw new IllegalStateException("Continuous recording is not running");
+        }
+        Path file = directory.resolve(CONTINUOUS + "-" + FILE_TIMESTAMP.format(Instant.now()) + ".jfr");
+        recording.dump(file);
+        log.info("Continuous flight recording dumped to {}", file);
+        return file;
+    }
+    
+    /**
+     * Resolves a file in the recording directory, refusing anything outside of it
+     * @param fileName The name of a recording file
+     * @return The file's path
+     */
+    public Path recordingFile(String fileName) {
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.getParent().equals(directory.normalize()) || !fileName.endsWith(".jfr")) {
+            throw new IllegalArgumentException("Invalid recording file: " + fileName);
+        }
+        return file;
+    }
+    
+    public List<Recording> getRecordings() {
+        // On-demand recordings that ran for their full duration have already written their file
+        recordings.values().removeIf(recording -> {
+            boolean finished = recording.getState() == RecordingState.STOPPED
+                    || recording.getState() == RecordingState.CLOSED;
+            if (finished) {
+                recording.close();
+            }
+            return finished;
+        });
+        return List.copyOf(recordings.values());
+    }
+    
+    public List<Path> getFiles() {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".jfr")).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        recordings.values().forEach(Recording::close);
+        recordings.clear();
+    }
+    
+    private long activeOnDemand() {
+        return getRecordings().stream()
+                .filter(recording -> !CONTINUOUS.equals(recording.getName()))
+                .count();
+    }
+    
+    private static Map<String, String> onDemandSettings() throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("profile").getSettings());
+        settings.put("jdk.ObjectAllocationSample#enabled", "true");
+        settings.put("jdk.ObjectAllocationSample#stackTrace", "true");
+        for (String event : List.of("jdk.JavaMonitorEnter", "jdk.JavaMonitorWait", "jdk.ThreadPark",
+                "jdk.SocketRead", "jdk.SocketWrite")) {
+            settings.put(event + "#enabled", "true");
+            settings.put(event + "#stackTrace", "true");
+            settings.put(event + "#threshold", ON_DEMAND_THRESHOLD);
+        }
+        return settings;
+    }
+}
@@ -0,0 +1,145 @@
+package com.ecommerce.command.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a flight recording and attributes allocations and blocking to the innermost frame of the
+ * application's own code, so a summary points at our methods rather than at the JDK or a library.
+ * Blocking is split into monitor contention, parking, JDBC socket reads and other socket I/O.
+ */
+final class FlightRecordingSummary {
+    
+    private static final String JDBC_DRIVER_PACKAGE = "org.postgresql.";
+    
+    private final String applicationPackage;
+    private final Map<String, Tally> allocations = new HashMap<>();
+    private final Map<String, Map<String, Tally>> blocking = new LinkedHashMap<>();
+    private long events;
+    private long unattributed;
+    
+    private FlightRecordingSummary(String applicationPackage) {
+        this.applicationPackage = applicationPackage;
+        for (String kind : List.of("monitor", "park", "jdbc-read", "socket-io")) {
+            blocking.put(kind, new HashMap<>());
+        }
+    }
+    
+    /**
+     * Summarizes a recording file
+     * @param file The recording
+     * @param applicationPackage Frames in this package are the ones reported
+     * @param top The number of frames to report per category
+     * @return The top allocating frames by sampled bytes, and the top blocking frames by time
+     */
+    static Map<String, Object> summarize(Path file, String applicationPackage, int top) throws IOException {
+        FlightRecordingSummary summary = new FlightRecordingSummary(applicationPackage);
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                summary.accept(recording.readEvent());
+            }
+        }
+        return summary.describe(file, top);
+    }
+    
+    private void accept(RecordedEvent event) {
+        String type = event.getEventType().getName();
+        switch (type) {
+            case "jdk.ObjectAllocationSample" -> allocate(event, event.getLong("weight"));
+            case "jdk.ObjectAllocationInNewTLAB" -> allocate(event, event.getLong("tlabSize"));
+            case "jdk.ObjectAllocationOutsideTLAB" -> allocate(event, event.getLong("allocationSize"));
+            case "jdk.JavaMonitorEnter" -> block("monitor", event);
+            case "jdk.ThreadPark" -> block("park", event);
+            case "jdk.SocketRead" -> block(isJdbc(event.getStackTrace()) ? "jdbc-read" : "socket-io", event);
+            case "jdk.SocketWrite" -> block("socket-io", event);
+            default -> {
+                return;
+            }
+        }
+        events++;
+    }
+    
+    private void allocate(RecordedEvent event, long bytes) {
+        String frame = applicationFrame(event.getStackTrace());
+        if (frame != null) {
+            allocations.computeIfAbsent(frame, f -> new Tally()).add(bytes);
+        }
+    }
+    
+    private void block(String kind, RecordedEvent event) {
+        String frame = applicationFrame(event.getStackTrace());
+        if (frame != null) {
+            blocking.get(kind).computeIfAbsent(frame, f -> new Tally()).add(event.getDuration().toNanos());
+        }
+    }
+    
+    private String applicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace != null) {
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                String type = frame.getMethod().getType().getName();
+                if (frame.isJavaFrame() && type.startsWith(applicationPackage)
+                        && !type.startsWith(FlightRecordingSummary.class.getPackageName())) {
+                    return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+                }
+            }
+        }
+        unattributed++;
+        return null;
+    }
+    
+    private static boolean isJdbc(RecordedStackTrace stackTrace) {
+        return stackTrace != null && stackTrace.getFrames().stream()
+                .anyMatch(frame -> frame.getMethod().getType().getName().startsWith(JDBC_DRIVER_PACKAGE));
+    }
+    
+    private Map<String, Object> describe(Path file, int top) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("file", file.getFileName().toString());
+        summary.put("events", events);
+        summary.put("unattributedEvents", unattributed);
+        summary.put("allocation", top(allocations, top, "sampledBytes"));
+        Map<String, Object> blocked = new LinkedHashMap<>();
+        blocking.forEach((kind, frames) -> blocked.put(kind, top(frames, top, "totalMs")));
+        summary.put("blocking", blocked);
+        return summary;
+    }
+    
+    private static List<Map<String, Object>> top(Map<String, Tally> frames, int top, String measure) {
+        boolean time = "totalMs".equals(measure);
+        return frames.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Tally> entry) -> entry.getValue().total).reversed())
+                .limit(top)
+                .map(entry -> {
+                    Map<String, Object> frame = new LinkedHashMap<>();
+                    frame.put("frame", entry.getKey());
+                    frame.put("events", entry.getValue().count);
+                    if (time) {
+                        frame.put(measure, entry.getValue().total / 1e6);
+                    } else {
+                        frame.put(measure, entry.getValue().total);
+                    }
+                    return frame;
+                })
+                .toList();
+    }
+    
+    private static final class Tally {
+        private long count;
+        private long total;
+        
+        void add(long amount) {
+            count++;
+            total += amount;
+        }
+    }
+}
@@ -4,11 +4,13 @@ import com.ecommerce.command.domain.Inventory;
 import com.ecommerce.command.domain.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.time.ZonedDateTime;
 import java.util.Optional;
 
 @Repository
@@ -18,4 +20,20 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     @Lock(LockModeType.OPTIMISTIC)
     @Query("SELECT i FROM Inventory i WHERE i.product.id = :productId")
     Optional<Inventory> findByProductIdWithLock(@Param("productId") Long productId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.product.id = :productId")
+    Optional<Inventory> findByProductIdForUpdate(@Param("productId") Long productId);
+    
+    @Query("SELECT i FROM Inventory i WHERE i.product.id = :productId")
+    Optional<Inventory> findByProductId(@Param("productId") Long productId);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity - :quantity, i.version = i.version + 1, i.updatedAt = :now " +
+           "WHERE i.product.id = :productId AND i.quantity >= :quantity")
+    int decrementIfAvailable(@Param("productId") Long productId, @Param("quantity") int quantity,
+                             @Param("now") ZonedDateTime now);
+    
+    @Query("SELECT i.quantity FROM Inventory i WHERE i.product.id = :productId")
+    Optional<Integer> findQuantityByProductId(@Param("productId") Long productId);
 }
@@ -0,0 +1,24 @@
+package com.ecommerce.command.repository;
+
+import com.ecommerce.command.domain.InventoryReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, Long> {
+    // Locked, so a coordinator and the recovery job never settle the same reservation twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<InventoryReservation> findByOrderNumberAndStatus(String orderNumber, InventoryReservation.Status status);
+    
+    @Query("SELECT DISTINCT r.orderNumber FROM InventoryReservation r " +
+           "WHERE r.status = com.ecommerce.command.domain.InventoryReservation$Status.PENDING AND r.createdAt < :before")
+    List<String> findPendingOrderNumbersCreatedBefore(@Param("before") ZonedDateTime before, Pageable pageable);
+}
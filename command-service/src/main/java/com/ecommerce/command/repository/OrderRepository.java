@@ -4,10 +4,54 @@ import com.ecommerce.command.domain.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    Optional<Order> findByOrderNumber(String orderNumber);
-    boolean existsByOrderNumber(String orderNumber);
+    
+    // Order numbers look like ORD-yyyyMMdd-nnnnn, dated in the zone of the instance that created them
+    DateTimeFormatter ORDER_NUMBER_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    
+    Optional<Order> findByOrderNumberAndCreatedAtBetween(String orderNumber, ZonedDateTime from, ZonedDateTime to);
+    boolean existsByOrderNumberAndCreatedAtBetween(String orderNumber, ZonedDateTime from, ZonedDateTime to);
+    
+    // Bounded by the date in the order number so that only the matching monthly partition is scanned
+    default Optional<Order> findByOrderNumber(String orderNumber) {
+        LocalDate date = orderDate(orderNumber);
+        if (date == null) {
+            return Optional.empty();
+        }
+        return findByOrderNumberAndCreatedAtBetween(orderNumber, windowStart(date), windowEnd(date));
+    }
+    
+    default boolean existsByOrderNumber(String orderNumber) {
+        LocalDate date = orderDate(orderNumber);
+        return date != null && existsByOrderNumberAndCreatedAtBetween(orderNumber, windowStart(date), windowEnd(date));
+    }
+    
+    private static LocalDate orderDate(String orderNumber) {
+        String[] parts = orderNumber.split("-");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(parts[1], ORDER_NUMBER_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    // A day of slack on each side covers every zone offset the number may have been dated in
+    private static ZonedDateTime windowStart(LocalDate date) {
+        return date.minusDays(1).atStartOfDay(ZoneOffset.UTC);
+    }
+    
+    private static ZonedDateTime windowEnd(LocalDate date) {
+        return date.plusDays(2).atStartOfDay(ZoneOffset.UTC);
+    }
 }
@@ -13,5 +13,7 @@ public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
     @Query(value = "SELECT * FROM outbox_events WHERE processed = false ORDER BY created_at ASC LIMIT :limit", nativeQuery = true)
     List<OutboxEvent> findUnprocessedEventsOrderByCreatedAt(@Param("limit") int limit);
     
+    long countByProcessedFalse();
+    
     List<OutboxEvent> findByAggregateTypeAndAggregateIdAndEventType(String aggregateType, String aggregateId, String eventType);
 }
@@ -0,0 +1,11 @@
+package com.ecommerce.command.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection with just what order creation needs from a product.
+ */
+public interface ProductPriceView {
+    Long getId();
+    BigDecimal getPrice();
+}
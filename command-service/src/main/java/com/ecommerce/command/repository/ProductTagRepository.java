@@ -3,7 +3,13 @@ package com.ecommerce.command.repository;
 import com.ecommerce.command.domain.Product;
 import com.ecommerce.command.domain.ProductTag;
 import com.ecommerce.command.domain.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -13,4 +19,64 @@ public interface ProductTagRepository extends JpaRepository<ProductTag, Long> {
     Optional<ProductTag> findByProductAndTag(Product product, Tag tag);
     boolean existsByProductAndTag(Product product, Tag tag);
     void deleteByProductAndTag(Product product, Tag tag);
+    
+    /**
+     * Replaces the tag set of a product in a single statement.
+     * @param productId The ID of the product
+     * @param tagRows JSON array of {"tag_id": ..., "tag_value": ...} rows
+     * @return The number of inserted or updated product tags
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_tags"))
+    @Query(value = """
+            WITH incoming AS (
+                SELECT t.tag_id, t.tag_value
+                FROM jsonb_to_recordset(CAST(:tagRows AS jsonb)) AS t(tag_id bigint, tag_value text)
+            ), removed AS (
+                DELETE FROM product_tags
+                WHERE product_id = :productId AND tag_id NOT IN (SELECT tag_id FROM incoming)
+            )
+            INSERT INTO product_tags (product_id, tag_id, tag_value, created_at)
+            SELECT p.id, i.tag_id, i.tag_value, CURRENT_TIMESTAMP
+            FROM products p CROSS JOIN incoming i
+            WHERE p.id = :productId
+            ON CONFLICT (product_id, tag_id) DO UPDATE SET tag_value = EXCLUDED.tag_value
+            """, nativeQuery = true)
+    int replaceTags(@Param("productId") Long productId, @Param("tagRows") String tagRows);
+    
+    /**
+     * Adds tags to a product in a single statement, overwriting the values of tags it already has.
+     * @param productId The ID of the product
+     * @param tagRows JSON array of {"tag_id": ..., "tag_value": ...} rows
+     * @return The number of inserted or updated product tags
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_tags"))
+    @Query(value = """
+            INSERT INTO product_tags (product_id, tag_id, tag_value, created_at)
+            SELECT p.id, t.tag_id, t.tag_value, CURRENT_TIMESTAMP
+            FROM products p
+            CROSS JOIN jsonb_to_recordset(CAST(:tagRows AS jsonb)) AS t(tag_id bigint, tag_value text)
+            WHERE p.id = :productId
+            ON CONFLICT (product_id, tag_id) DO UPDATE SET tag_value = EXCLUDED.tag_value
+            """, nativeQuery = true)
+    int mergeTags(@Param("productId") Long productId, @Param("tagRows") String tagRows);
+    
+    /**
+     * Applies one tag to many products in a single statement. Unknown product IDs are skipped.
+     * @param tagId The ID of the tag
+     * @param tagValue The tag value
+     * @param productIds JSON array of product IDs
+     * @return The number of inserted or updated product tags
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_tags"))
+    @Query(value = """
+            INSERT INTO product_tags (product_id, tag_id, tag_value, created_at)
+            SELECT p.id, :tagId, :tagValue, CURRENT_TIMESTAMP
+            FROM products p
+            WHERE p.id IN (SELECT CAST(ids.value AS bigint) FROM jsonb_array_elements_text(CAST(:productIds AS jsonb)) AS ids)
+            ON CONFLICT (product_id, tag_id) DO UPDATE SET tag_value = EXCLUDED.tag_value
+            """, nativeQuery = true)
+    int applyTag(@Param("tagId") Long tagId, @Param("tagValue") String tagValue, @Param("productIds") String productIds);
 }
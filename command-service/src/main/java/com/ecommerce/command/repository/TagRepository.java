@@ -1,7 +1,13 @@
 package com.ecommerce.command.repository;
 
 import com.ecommerce.command.domain.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +15,18 @@ import java.util.Optional;
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
     Optional<Tag> findByName(String name);
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tags"))
+    @Query(value = "INSERT INTO tags (name, created_at) VALUES (:name, CURRENT_TIMESTAMP) ON CONFLICT (name) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+    
+    // Copies a tag created on shard 0 to the shard of a product, keeping its ID
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tags"))
+    @Query(value = "INSERT INTO tags (id, name, created_at) VALUES (:id, :name, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertWithIdIfAbsent(@Param("id") Long id, @Param("name") String name);
+    
+    @Query("SELECT t.id FROM Tag t WHERE t.name = :name")
+    Optional<Long> findIdByName(@Param("name") String name);
 }
@@ -0,0 +1,25 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.domain.Inventory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds inventory event payloads in the InventoryUpdatedEvent shape without touching the product.
+ */
+final class InventoryEvents {
+    
+    private InventoryEvents() {
+    }
+    
+    static Map<String, Object> payload(Inventory inventory) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("inventoryId", inventory.getId().toString());
+        payload.put("productId", inventory.getProduct().getId().toString());
+        payload.put("quantity", inventory.getQuantity());
+        payload.put("version", inventory.getVersion());
+        payload.put("updatedAt", inventory.getUpdatedAt());
+        return payload;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.command.service;
+
+/**
+ * How {@code InventoryService.decrementInventory} guards a quantity against concurrent decrements.
+ */
+public enum InventoryLockingStrategy {
+    
+    // Versioned read, update checked against the version; concurrent writers fail with a 409
+    OPTIMISTIC,
+    
+    // SELECT ... FOR UPDATE, concurrent writers queue on the row lock
+    PESSIMISTIC,
+    
+    // Single UPDATE ... WHERE quantity >= :quantity, no read before the write
+    CONDITIONAL_UPDATE
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
+import com.ecommerce.command.repository.InventoryReservationRepository;
+import com.ecommerce.command.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Settles reservations left pending by an order coordinator that stopped between the two phases.
+ * A reservation whose order exists on shard 0 is confirmed, any other is released, once it is
+ * older than {@code inventory.reservations.pending-timeout-ms}.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.sharding.enabled", havingValue = "true")
+public class InventoryReservationRecovery {
+    
+    private static final Logger log = LoggerFactory.getLogger(InventoryReservationRecovery.class);
+    
+    private final InventoryReservationRepository reservationRepository;
+    private final OrderRepository orderRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final ShardRouter shardRouter;
+    private final Duration pendingTimeout;
+    private final int batchSize;
+    private final Counter confirmed;
+    private final Counter released;
+    
+    public InventoryReservationRecovery(
+            InventoryReservationRepository reservationRepository,
+            OrderRepository orderRepository,
+            InventoryReservationService inventoryReservationService,
+            ShardRouter shardRouter,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.reservations.pending-timeout-ms:300000}") long pendingTimeoutMs,
+            @Value("${inventory.reservations.recovery-batch-size:100}") int batchSize) {
+        this.reservationRepository = reservationRepository;
+        this.orderRepository = orderRepository;
+        this.inventoryReservationService = inventoryReservationService;
+        this.shardRouter = shardRouter;
+        this.pendingTimeout = Duration.ofMillis(pendingTimeoutMs);
+        this.batchSize = batchSize;
+        this.confirmed = Counter.builder("inventory.reservations.recovered")
+                .description("Orders whose pending reservations were settled by the recovery job")
+                .tag("outcome", "confirmed")
+                .register(meterRegistry);
+        this.released = Counter.builder("inventory.reservations.recovered")
+                .description("Orders whose pending reservations were settled by the recovery job")
+                .tag("outcome", "released")
+                .register(meterRegistry);
+    }
+    
+    @WorkloadPool(Workload.ORDERS)
+    @Scheduled(fixedDelayString = "${inventory.reservations.recovery-interval-ms:60000}")
+    public void recover() {
+        ZonedDateTime before = ZonedDateTime.now().minus(pendingTimeout);
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            int current = shard;
+            List<String> orderNumbers = ShardContext.call(current,
+                    () -> reservationRepository.findPendingOrderNumbersCreatedBefore(before, PageRequest.of(0, batchSize)));
+            
+            for (String orderNumber : orderNumbers) {
+                boolean placed = ShardContext.call(0, () -> orderRepository.existsByOrderNumber(orderNumber));
+                ShardContext.run(current, () -> {
+                    if (placed) {
+                        inventoryReservationService.confirm(orderNumber);
+                    } else {
+                        inventoryReservationService.release(orderNumber);
+                    }
+                });
+                (placed ? confirmed : released).increment();
+                log.info("Recovered pending reservations of order {} on shard {}: {}",
+                        orderNumber, current, placed ? "confirmed" : "released");
+            }
+        }
+    }
+}
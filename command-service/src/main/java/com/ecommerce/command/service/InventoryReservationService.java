@@ -0,0 +1,28 @@
+package com.ecommerce.command.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public interface InventoryReservationService {
+    
+    /**
+     * Reserves inventory for an order on the shard of the current thread. The inventory is taken
+     * right away and held by pending reservations until the order is confirmed or released.
+     * @param orderNumber The number of the order
+     * @param quantities The quantities to reserve by product ID, all on the current shard
+     * @return The unit prices of the reserved products by product ID
+     */
+    Map<Long, BigDecimal> reserve(String orderNumber, Map<Long, Integer> quantities);
+    
+    /**
+     * Makes the pending reservations of an order on the current shard final
+     * @param orderNumber The number of the order
+     */
+    void confirm(String orderNumber);
+    
+    /**
+     * Returns the inventory held by the pending reservations of an order on the current shard
+     * @param orderNumber The number of the order
+     */
+    void release(String orderNumber);
+}
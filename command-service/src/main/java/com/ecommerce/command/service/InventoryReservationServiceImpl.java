@@ -0,0 +1,101 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.cache.InventoryLevelCache;
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
+import com.ecommerce.command.domain.InventoryReservation;
+import com.ecommerce.command.exception.InsufficientInventoryException;
+import com.ecommerce.command.exception.ResourceNotFoundException;
+import com.ecommerce.command.repository.InventoryReservationRepository;
+import com.ecommerce.command.repository.ProductPriceView;
+import com.ecommerce.command.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@WorkloadPool(Workload.ORDERS)
+public class InventoryReservationServiceImpl implements InventoryReservationService {
+    
+    private static final Logger log = LoggerFactory.getLogger(InventoryReservationServiceImpl.class);
+    
+    private final InventoryReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final InventoryLevelCache inventoryLevelCache;
+    
+    public InventoryReservationServiceImpl(
+            InventoryReservationRepository reservationRepository,
+            ProductRepository productRepository,
+            InventoryService inventoryService,
+            InventoryLevelCache inventoryLevelCache) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.inventoryService = inventoryService;
+        this.inventoryLevelCache = inventoryLevelCache;
+    }
+    
+    @Override
+    @Transactional
+    public Map<Long, BigDecimal> reserve(String orderNumber, Map<Long, Integer> quantities) {
+        log.info("Reserving inventory of {} products for order {}", quantities.size(), orderNumber);
+        
+        // Price every product of the shard with a single projection query
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (ProductPriceView view : productRepository.findPricesByIdIn(quantities.keySet())) {
+            prices.put(view.getId(), view.getPrice());
+        }
+        
+        // Check every product before taking any inventory
+        quantities.forEach((productId, quantity) -> {
+            if (!prices.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            if (!inventoryService.hasSufficientInventory(productId, quantity)) {
+                log.warn("Insufficient inventory for product ID {}", productId);
+                throw new InsufficientInventoryException(productId, quantity, inventoryLevelCache.getQuantity(productId));
+            }
+        });
+        
+        quantities.forEach((productId, quantity) -> {
+            inventoryService.decrementInventory(productId, quantity);
+            
+            InventoryReservation reservation = new InventoryReservation();
+            reservation.setOrderNumber(orderNumber);
+            reservation.setProductId(productId);
+            reservation.setQuantity(quantity);
+            reservationRepository.save(reservation);
+        });
+        
+        return prices;
+    }
+    
+    @Override
+    @Transactional
+    public void confirm(String orderNumber) {
+        List<InventoryReservation> reservations =
+                reservationRepository.findByOrderNumberAndStatus(orderNumber, InventoryReservation.Status.PENDING);
+        for (InventoryReservation reservation : reservations) {
+            reservation.setStatus(InventoryReservation.Status.CONFIRMED);
+        }
+        log.debug("Confirmed {} reservations of order {}", reservations.size(), orderNumber);
+    }
+    
+    @Override
+    @Transactional
+    public void release(String orderNumber) {
+        List<InventoryReservation> reservations =
+                reservationRepository.findByOrderNumberAndStatus(orderNumber, InventoryReservation.Status.PENDING);
+        for (InventoryReservation reservation : reservations) {
+            inventoryService.restoreInventory(reservation.getProductId(), reservation.getQuantity());
+            reservation.setStatus(InventoryReservation.Status.RELEASED);
+        }
+        log.info("Released {} reservations of order {}", reservations.size(), orderNumber);
+    }
+}
@@ -27,4 +27,11 @@ public interface InventoryService {
      * @param quantity The quantity to decrement
      */
     void decrementInventory(Long productId, Integer quantity);
+    
+    /**
+     * Returns previously decremented inventory to a product, e.g. when a reservation is released
+     * @param productId The ID of the product
+     * @param quantity The quantity to return
+     */
+    void restoreInventory(Long productId, Integer quantity);
 }
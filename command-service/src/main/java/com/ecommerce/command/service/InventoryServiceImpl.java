@@ -1,55 +1,68 @@
 package com.ecommerce.command.service;
 
+import com.ecommerce.command.cache.InventoryLevelCache;
+import com.ecommerce.command.datasource.ShardedBy;
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
 import com.ecommerce.command.domain.Inventory;
 import com.ecommerce.command.domain.Product;
 import com.ecommerce.command.dto.InventoryResponse;
 import com.ecommerce.command.dto.UpdateInventoryRequest;
 import com.ecommerce.command.exception.InsufficientInventoryException;
 import com.ecommerce.command.exception.ResourceNotFoundException;
+import com.ecommerce.command.persistence.StatementBudget;
 import com.ecommerce.command.repository.InventoryRepository;
 import com.ecommerce.command.repository.ProductRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
 
 @Service
+@WorkloadPool(Workload.CATALOG)
 public class InventoryServiceImpl implements InventoryService {
     
     private static final Logger log = LoggerFactory.getLogger(InventoryServiceImpl.class);
     
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
+    private final InventoryLevelCache inventoryLevelCache;
     private final OutboxService outboxService;
     private final ObjectMapper objectMapper;
+    private final InventoryLockingStrategy lockingStrategy;
     
     public InventoryServiceImpl(
             InventoryRepository inventoryRepository,
             ProductRepository productRepository,
+            InventoryLevelCache inventoryLevelCache,
             OutboxService outboxService,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            @Value("${inventory.locking-strategy:optimistic}") InventoryLockingStrategy lockingStrategy) {
         this.inventoryRepository = inventoryRepository;
         this.productRepository = productRepository;
+        this.inventoryLevelCache = inventoryLevelCache;
         this.outboxService = outboxService;
         this.objectMapper = objectMapper;
+        this.lockingStrategy = lockingStrategy;
     }
     
     @Override
+    @ShardedBy("#productId")
     @Transactional
+    @StatementBudget("4")
     public InventoryResponse updateInventory(Long productId, UpdateInventoryRequest request) {
         log.info("Updating inventory for product with ID {}, change: {}", productId, request.getQuantityChange());
         
-        // Find product
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
-        
-        // Find or create inventory
+        // Find or create inventory, loading the product only when it has no inventory yet
         Inventory inventory = inventoryRepository.findByProductIdWithLock(productId)
                 .orElseGet(() -> {
+                    Product product = productRepository.findById(productId)
+                            .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
                     Inventory newInventory = new Inventory();
                     newInventory.setProduct(product);
                     return newInventory;
@@ -69,8 +82,9 @@ public class InventoryServiceImpl implements InventoryService {
             }
         }
         
-        // Save inventory
-        inventory = inventoryRepository.save(inventory);
+        // Save inventory, flushing so the event carries the new version and timestamp
+        inventory = inventoryRepository.saveAndFlush(inventory);
+        inventoryLevelCache.putAfterCommit(productId, inventory.getQuantity());
         
         // Publish inventory updated event
         publishInventoryEvent(inventory, "updated");
@@ -80,26 +94,38 @@ public class InventoryServiceImpl implements InventoryService {
     }
     
     @Override
+    @ShardedBy("#productId")
     @Transactional(readOnly = true)
     public boolean hasSufficientInventory(Long productId, Integer quantity) {
         log.debug("Checking inventory for product ID {}, requested quantity: {}", productId, quantity);
         
-        return inventoryRepository.findByProductIdWithLock(productId)
-                .map(inventory -> inventory.getQuantity() >= quantity)
-                .orElse(false);
+        // Cached quantities may be stale, so only a positive answer is trusted without a database read
+        if (inventoryLevelCache.getQuantity(productId) >= quantity) {
+            return true;
+        }
+        return inventoryLevelCache.reload(productId) >= quantity;
     }
     
     @Override
+    @ShardedBy("#productId")
     @Transactional
     public void decrementInventory(Long productId, Integer quantity) {
         log.info("Decrementing inventory for product ID {}, quantity: {}", productId, quantity);
         
-        Inventory inventory = inventoryRepository.findByProductIdWithLock(productId)
+        if (lockingStrategy == InventoryLockingStrategy.CONDITIONAL_UPDATE) {
+            decrementWithConditionalUpdate(productId, quantity);
+            return;
+        }
+        
+        Inventory inventory = (lockingStrategy == InventoryLockingStrategy.PESSIMISTIC
+                ? inventoryRepository.findByProductIdForUpdate(productId)
+                : inventoryRepository.findByProductIdWithLock(productId))
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
         
         try {
             inventory.decrementQuantity(quantity);
-            inventoryRepository.save(inventory);
+            inventoryRepository.saveAndFlush(inventory);
+            inventoryLevelCache.putAfterCommit(productId, inventory.getQuantity());
             
             // Publish inventory updated event
             publishInventoryEvent(inventory, "updated");
@@ -111,9 +137,47 @@ public class InventoryServiceImpl implements InventoryService {
         }
     }
     
+    @Override
+    @ShardedBy("#productId")
+    @Transactional
+    public void restoreInventory(Long productId, Integer quantity) {
+        log.info("Restoring inventory for product ID {}, quantity: {}", productId, quantity);
+        
+        Inventory inventory = inventoryRepository.findByProductIdWithLock(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
+        
+        inventory.incrementQuantity(quantity);
+        inventoryRepository.saveAndFlush(inventory);
+        inventoryLevelCache.putAfterCommit(productId, inventory.getQuantity());
+        
+        // Publish inventory updated event
+        publishInventoryEvent(inventory, "updated");
+        
+        log.info("Inventory restored successfully for product ID {}, new quantity: {}", productId, inventory.getQuantity());
+    }
+    
+    private void decrementWithConditionalUpdate(Long productId, Integer quantity) {
+        // The database checks and decrements in one statement, so a miss only needs to tell why
+        if (inventoryRepository.decrementIfAvailable(productId, quantity, ZonedDateTime.now()) == 0) {
+            int available = inventoryRepository.findQuantityByProductId(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
+            log.warn("Insufficient inventory for product ID {}", productId);
+            throw new InsufficientInventoryException(productId, quantity, available);
+        }
+        
+        Inventory inventory = inventoryRepository.findByProductId(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory", "productId", productId));
+        inventoryLevelCache.putAfterCommit(productId, inventory.getQuantity());
+        
+        // Publish inventory updated event
+        publishInventoryEvent(inventory, "updated");
+        
+        log.info("Inventory decremented successfully for product ID {}, new quantity: {}", productId, inventory.getQuantity());
+    }
+    
     private void publishInventoryEvent(Inventory inventory, String eventType) {
         try {
-            String payload = objectMapper.writeValueAsString(inventory);
+            String payload = objectMapper.writeValueAsString(InventoryEvents.payload(inventory));
             outboxService.createOutboxEvent("inventory", inventory.getId().toString(), eventType, payload);
         } catch (JsonProcessingException e) {
             log.error("Error serializing inventory for event publishing", e);
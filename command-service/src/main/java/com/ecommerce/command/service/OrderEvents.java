@@ -0,0 +1,39 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.domain.Order;
+import com.ecommerce.command.domain.OrderItem;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds order event payloads from the order alone, so the lazy product references are never initialized.
+ */
+final class OrderEvents {
+    
+    private OrderEvents() {
+    }
+    
+    static Map<String, Object> payload(Order order) {
+        List<Map<String, Object>> items = new ArrayList<>(order.getItems().size());
+        for (OrderItem item : order.getItems()) {
+            Map<String, Object> itemPayload = new LinkedHashMap<>();
+            itemPayload.put("itemId", item.getId().toString());
+            itemPayload.put("productId", item.getProduct().getId().toString());
+            itemPayload.put("quantity", item.getQuantity());
+            itemPayload.put("unitPrice", item.getUnitPrice().toBigDecimal());
+            itemPayload.put("totalPrice", item.getTotalPrice().toBigDecimal());
+            items.add(itemPayload);
+        }
+        
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId().toString());
+        payload.put("orderNumber", order.getOrderNumber());
+        payload.put("totalAmount", order.getTotalAmount().toBigDecimal());
+        payload.put("createdAt", order.getCreatedAt());
+        payload.put("items", items);
+        return payload;
+    }
+}
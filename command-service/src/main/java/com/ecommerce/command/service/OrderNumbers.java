@@ -0,0 +1,22 @@
+package com.ecommerce.command.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates order numbers of the form {@code ORD-yyyyMMdd-nnnnn} for every order path.
+ */
+final class OrderNumbers {
+    
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    
+    private OrderNumbers() {
+    }
+    
+    static String generate() {
+        String datePart = LocalDate.now().format(DATE);
+        int randomNum = ThreadLocalRandom.current().nextInt(10000, 100000);
+        return "ORD-" + datePart + "-" + randomNum;
+    }
+}
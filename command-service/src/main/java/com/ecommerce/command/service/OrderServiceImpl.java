@@ -1,27 +1,38 @@
 package com.ecommerce.command.service;
 
+import com.ecommerce.command.cache.InventoryLevelCache;
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
+import com.ecommerce.command.domain.Money;
 import com.ecommerce.command.domain.Order;
 import com.ecommerce.command.domain.OrderItem;
-import com.ecommerce.command.domain.Product;
 import com.ecommerce.command.dto.CreateOrderRequest;
 import com.ecommerce.command.dto.OrderItemRequest;
 import com.ecommerce.command.dto.OrderResponse;
 import com.ecommerce.command.exception.InsufficientInventoryException;
 import com.ecommerce.command.exception.ResourceNotFoundException;
+import com.ecommerce.command.persistence.OrderNumberRegistry;
+import com.ecommerce.command.persistence.StatementBudget;
 import com.ecommerce.command.repository.OrderRepository;
+import com.ecommerce.command.repository.ProductPriceView;
 import com.ecommerce.command.repository.ProductRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.ThreadLocalRandom;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 @Service
+@ConditionalOnProperty(name = "datasource.sharding.enabled", havingValue = "false", matchIfMissing = true)
+@WorkloadPool(Workload.ORDERS)
 public class OrderServiceImpl implements OrderService {
     
     private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
@@ -29,24 +40,31 @@ public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final InventoryService inventoryService;
+    private final InventoryLevelCache inventoryLevelCache;
     private final OutboxService outboxService;
+    private final OrderNumberRegistry orderNumberRegistry;
     private final ObjectMapper objectMapper;
     
     public OrderServiceImpl(
             OrderRepository orderRepository,
             ProductRepository productRepository,
             InventoryService inventoryService,
+            InventoryLevelCache inventoryLevelCache,
             OutboxService outboxService,
+            OrderNumberRegistry orderNumberRegistry,
             ObjectMapper objectMapper) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.inventoryService = inventoryService;
+        this.inventoryLevelCache = inventoryLevelCache;
         this.outboxService = outboxService;
+        this.orderNumberRegistry = orderNumberRegistry;
         this.objectMapper = objectMapper;
     }
     
     @Override
     @Transactional
+    @StatementBudget("4 + 6 * #request.items.size()")
     public OrderResponse createOrder(CreateOrderRequest request) {
         log.info("Creating new order with {} items", request.getItems().size());
         
@@ -56,39 +74,47 @@ public class OrderServiceImpl implements OrderService {
         // Create order
         Order order = new Order();
         order.setOrderNumber(orderNumber);
-        order.setTotalAmount(java.math.BigDecimal.ZERO);
+        
+        // Price every product of the order with a single projection query
+        Set<Long> productIds = new HashSet<>();
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            productIds.add(itemRequest.getProductId());
+        }
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (ProductPriceView view : productRepository.findPricesByIdIn(productIds)) {
+            prices.put(view.getId(), view.getPrice());
+        }
         
         // Check and reserve inventory for all items
         for (OrderItemRequest itemRequest : request.getItems()) {
             log.debug("Processing order item: productId={}, quantity={}", itemRequest.getProductId(), itemRequest.getQuantity());
             
             // Check if product exists
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", itemRequest.getProductId()));
+            if (!prices.containsKey(itemRequest.getProductId())) {
+                throw new ResourceNotFoundException("Product", "id", itemRequest.getProductId());
+            }
             
             // Check if there is sufficient inventory
-            if (!inventoryService.hasSufficientInventory(product.getId(), itemRequest.getQuantity())) {
-                log.warn("Insufficient inventory for product ID {}", product.getId());
-                throw new InsufficientInventoryException(product.getId(), itemRequest.getQuantity(), 
-                        product.getInventory() != null ? product.getInventory().getQuantity() : 0);
+            if (!inventoryService.hasSufficientInventory(itemRequest.getProductId(), itemRequest.getQuantity())) {
+                log.warn("Insufficient inventory for product ID {}", itemRequest.getProductId());
+                throw new InsufficientInventoryException(itemRequest.getProductId(), itemRequest.getQuantity(),
+                        inventoryLevelCache.getQuantity(itemRequest.getProductId()));
             }
         }
         
         // Process all items
         for (OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productRepository.findById(itemRequest.getProductId()).get(); // Safe as we've already checked
-            
-            // Create order item
+            // Create order item, referencing the product without loading it
             OrderItem orderItem = new OrderItem();
-            orderItem.setProduct(product);
+            orderItem.setProduct(productRepository.getReferenceById(itemRequest.getProductId()));
             orderItem.setQuantity(itemRequest.getQuantity());
-            orderItem.setUnitPrice(product.getPrice());
+            orderItem.setUnitPrice(Money.of(prices.get(itemRequest.getProductId())));
             
             // Add item to order
             order.addItem(orderItem);
             
             // Decrement inventory
-            inventoryService.decrementInventory(product.getId(), itemRequest.getQuantity());
+            inventoryService.decrementInventory(itemRequest.getProductId(), itemRequest.getQuantity());
         }
         
         // Save order
@@ -98,23 +124,20 @@ public class OrderServiceImpl implements OrderService {
         publishOrderEvent(order, "created");
         
         log.info("Order created successfully with ID: {}, number: {}", order.getId(), order.getOrderNumber());
-        return OrderResponse.created(order.getId(), order.getOrderNumber(), order.getTotalAmount());
+        return OrderResponse.created(order.getId(), order.getOrderNumber(), order.getTotalAmount().toBigDecimal());
     }
     
     @Override
     public String generateOrderNumber() {
-        LocalDate today = LocalDate.now();
-        String datePart = today.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        int randomNum = ThreadLocalRandom.current().nextInt(10000, 100000);
-        return String.format("ORD-%s-%d", datePart, randomNum);
+        return orderNumberRegistry.claim(OrderNumbers::generate);
     }
     
     private void publishOrderEvent(Order order, String eventType) {
         try {
-            String payload = objectMapper.writeValueAsString(order);
+            String payload = objectMapper.writeValueAsString(OrderEvents.payload(order));
             outboxService.createOutboxEvent("order", order.getId().toString(), eventType, payload);
         } catch (JsonProcessingException e) {
             log.error("Error serializing order for event publishing", e);
         }
     }
-}
\ No newline at end of file
+}
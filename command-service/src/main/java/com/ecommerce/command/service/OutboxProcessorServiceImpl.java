@@ -1,73 +1,28 @@
 package com.ecommerce.command.service;
 
-import com.ecommerce.command.domain.OutboxEvent;
-import com.ecommerce.command.repository.OutboxRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.scheduling.annotation.Async;
+import com.ecommerce.command.datasource.ShardRouter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.time.ZonedDateTime;
-import java.util.List;
 
 @Service
+@ConditionalOnProperty(name = "outbox.relay", havingValue = "blocking", matchIfMissing = true)
 public class OutboxProcessorServiceImpl implements OutboxProcessorService {
     
-    private static final Logger log = LoggerFactory.getLogger(OutboxProcessorServiceImpl.class);
-    
-    private final OutboxRepository outboxRepository;
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    
-    @Value("${outbox.max-items-per-polling:100}")
-    private int maxItemsPerPolling;
+    private final OutboxShardDrainer outboxShardDrainer;
+    private final ShardRouter shardRouter;
     
-    public OutboxProcessorServiceImpl(OutboxRepository outboxRepository, KafkaTemplate<String, String> kafkaTemplate) {
-        this.outboxRepository = outboxRepository;
-        this.kafkaTemplate = kafkaTemplate;
+    public OutboxProcessorServiceImpl(OutboxShardDrainer outboxShardDrainer, ShardRouter shardRouter) {
+        this.outboxShardDrainer = outboxShardDrainer;
+        this.shardRouter = shardRouter;
     }
     
     @Override
-    @Async("taskExecutor")
     @Scheduled(fixedDelayString = "${outbox.polling.interval.ms:1000}")
-    @Transactional
     public void processOutboxEvents() {
-        List<OutboxEvent> unprocessedEvents = outboxRepository.findUnprocessedEventsOrderByCreatedAt(maxItemsPerPolling);
-        
-        if (!unprocessedEvents.isEmpty()) {
-            log.info("Processing {} outbox events", unprocessedEvents.size());
-            
-            for (OutboxEvent event : unprocessedEvents) {
-                try {
-                    // Determine the topic based on the aggregate type
-                    String topic = determineTopicName(event.getAggregateType());
-                    String key = event.getAggregateId();
-                    
-                    // Send the event to Kafka
-                    kafkaTemplate.send(topic, key, event.getPayload()).get();
-                    
-                    // Mark as processed
-                    event.setProcessed(true);
-                    event.setProcessedAt(ZonedDateTime.now());
-                    outboxRepository.save(event);
-                    
-                    log.debug("Processed outbox event: id={}, type={}", event.getId(), event.getEventType());
-                } catch (Exception e) {
-                    log.error("Error processing outbox event: id={}", event.getId(), e);
-                }
-            }
+        // Each shard has its own outbox, drained independently of the others
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            outboxShardDrainer.drain(shard);
         }
     }
-    
-    private String determineTopicName(String aggregateType) {
-        return switch (aggregateType.toLowerCase()) {
-            case "product" -> "products";
-            case "inventory" -> "inventory";
-            case "order" -> "orders";
-            default -> throw new IllegalArgumentException("Unknown aggregate type: " + aggregateType);
-        };
-    }
-}
\ No newline at end of file
+}
@@ -14,9 +14,11 @@ public class OutboxServiceImpl implements OutboxService {
     private static final Logger log = LoggerFactory.getLogger(OutboxServiceImpl.class);
     
     private final OutboxRepository outboxRepository;
+    private final OutboxTracing outboxTracing;
     
-    public OutboxServiceImpl(OutboxRepository outboxRepository) {
+    public OutboxServiceImpl(OutboxRepository outboxRepository, OutboxTracing outboxTracing) {
         this.outboxRepository = outboxRepository;
+        this.outboxTracing = outboxTracing;
     }
     
     @Override
@@ -29,6 +31,7 @@ public class OutboxServiceImpl implements OutboxService {
         outboxEvent.setAggregateId(aggregateId);
         outboxEvent.setEventType(eventType);
         outboxEvent.setPayload(payload);
+        outboxEvent.setTraceParent(outboxTracing.capture());
         
         return outboxRepository.save(outboxEvent);
     }
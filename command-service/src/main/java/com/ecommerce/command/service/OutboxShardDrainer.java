@@ -0,0 +1,120 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
+import com.ecommerce.command.domain.OutboxEvent;
+import com.ecommerce.command.repository.OutboxRepository;
+import io.micrometer.tracing.Span;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes the outbox of one shard at a time. Every shard is drained on a task of its own and
+ * at most once concurrently, so a slow or unavailable shard never holds back the others.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay", havingValue = "blocking", matchIfMissing = true)
+@WorkloadPool(Workload.OUTBOX)
+public class OutboxShardDrainer {
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboxShardDrainer.class);
+    
+    private final OutboxRepository outboxRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxTracing outboxTracing;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean[] draining;
+    
+    @Value("${outbox.max-items-per-polling:100}")
+    private int maxItemsPerPolling;
+    
+    public OutboxShardDrainer(
+            OutboxRepository outboxRepository,
+            KafkaTemplate<String, String> kafkaTemplate,
+            OutboxTracing outboxTracing,
+            PlatformTransactionManager transactionManager,
+            ShardRouter shardRouter) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.outboxTracing = outboxTracing;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.draining = new AtomicBoolean[shardRouter.getShards()];
+        for (int shard = 0; shard < draining.length; shard++) {
+            draining[shard] = new AtomicBoolean();
+        }
+    }
+    
+    @Async("taskExecutor")
+    public void drain(int shard) {
+        if (!draining[shard].compareAndSet(false, true)) {
+            log.debug("Outbox of shard {} is still being drained", shard);
+            return;
+        }
+        try {
+            ShardContext.run(shard, () -> transactionTemplate.executeWithoutResult(status -> publish(shard)));
+        } finally {
+            draining[shard].set(false);
+        }
+    }
+    
+    private void publish(int shard) {
+        List<OutboxEvent> unprocessedEvents = outboxRepository.findUnprocessedEventsOrderByCreatedAt(maxItemsPerPolling);
+        
+        if (!unprocessedEvents.isEmpty()) {
+            log.info("Processing {} outbox events of shard {}", unprocessedEvents.size(), shard);
+            
+            for (OutboxEvent event : unprocessedEvents) {
+                Span span = null;
+                try {
+                    // Determine the topic based on the aggregate type
+                    String topic = OutboxTopics.forAggregateType(event.getAggregateType());
+                    String key = event.getAggregateId();
+                    
+                    // Send the event to Kafka, continuing the trace of the command that wrote it
+                    span = outboxTracing.startPublish(event.getTraceParent(),
+                            event.getCreatedAt() != null ? event.getCreatedAt().toInstant() : null,
+                            topic, event.getEventType(), event.getId());
+                    ProducerRecord<String, String> record = OutboxTopics.record(topic, key,
+                            event.getEventType(), event.getPayload());
+                    outboxTracing.inject(span, record.headers());
+                    CompletableFuture<SendResult<String, String>> sent = kafkaTemplate.send(record);
+                    span.end();
+                    
+                    span = outboxTracing.startAck(span);
+                    sent.get();
+                    span.end();
+                    span = null;
+                    
+                    // Mark as processed
+                    event.setProcessed(true);
+                    event.setProcessedAt(ZonedDateTime.now());
+                    outboxRepository.save(event);
+                    
+                    log.debug("Processed outbox event: id={}, type={}", event.getId(), event.getEventType());
+                } catch (Exception e) {
+                    if (span != null) {
+                        span.error(e);
+                        span.end();
+                    }
+                    log.error("Error processing outbox event: id={}", event.getId(), e);
+                }
+            }
+        }
+    }
+}
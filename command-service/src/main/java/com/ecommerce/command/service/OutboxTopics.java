@@ -0,0 +1,33 @@
+package com.ecommerce.command.service;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Maps outbox aggregate types to the Kafka topics they are relayed to, and builds the records that
+ * carry an event there.
+ */
+final class OutboxTopics {
+    
+    // Payloads are plain JSON, so consumers tell the events of a topic apart by this header
+    static final String EVENT_TYPE_HEADER = "event_type";
+    
+    private OutboxTopics() {
+    }
+    
+    static String forAggregateType(String aggregateType) {
+        return switch (aggregateType.toLowerCase()) {
+            case "product" -> "products";
+            case "inventory" -> "inventory";
+            case "order" -> "orders";
+            default -> throw new IllegalArgumentException("Unknown aggregate type: " + aggregateType);
+        };
+    }
+    
+    static ProducerRecord<String, String> record(String topic, String aggregateId, String eventType, String payload) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, aggregateId, payload);
+        record.headers().add(EVENT_TYPE_HEADER, eventType.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.command.service;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries the trace of a command across the outbox table. The writing span is stored with the
+ * event as a W3C traceparent. The relay continues it with a span per stage: queue wait (written
+ * to picked up), publish (handed to the producer) and ack (waiting for the broker). The publish
+ * span travels on as Kafka record headers.
+ */
+@Component
+class OutboxTracing {
+    
+    private static final String TRACE_PARENT = "traceparent";
+    
+    private final Tracer tracer;
+    private final Propagator propagator;
+    
+    // Both are absent with management.tracing.enabled=false, which turns every span into a no-op
+    OutboxTracing(ObjectProvider<Tracer> tracer, ObjectProvider<Propagator> propagator) {
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+        this.propagator = propagator.getIfAvailable(() -> Propagator.NOOP);
+    }
+    
+    /**
+     * Returns the traceparent of the current span, null outside a trace.
+     */
+    String capture() {
+        Span span = tracer.currentSpan();
+        if (span == null || span.isNoop()) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>();
+        propagator.inject(span.context(), carrier, Map::put);
+        return carrier.get(TRACE_PARENT);
+    }
+    
+    /**
+     * Records how long an event waited in the outbox and starts the span that publishes it, both
+     * as children of the span that wrote the event.
+     */
+    Span startPublish(String traceParent, Instant createdAt, String topic, String eventType, Long eventId) {
+        if (createdAt != null) {
+            childOf(traceParent)
+                    .name("outbox queue-wait")
+                    .tag("outbox.event.id", eventId)
+                    .startTimestamp(createdAt.toEpochMilli(), TimeUnit.MILLISECONDS)
+                    .start()
+                    .end();
+        }
+        return childOf(traceParent)
+                .name("outbox publish")
+                .kind(Span.Kind.PRODUCER)
+                .remoteServiceName("kafka")
+                .tag("messaging.destination.name", topic)
+                .tag("outbox.event.id", eventId)
+                .tag("outbox.event.type", eventType)
+                .start();
+    }
+    
+    /**
+     * Starts the span that waits for the broker's acknowledgement of a published record.
+     */
+    Span startAck(Span publish) {
+        return tracer.spanBuilder()
+                .setParent(publish.context())
+                .name("outbox ack")
+                .start();
+    }
+    
+    /**
+     * Writes the context of a publish span into the headers of its record.
+     */
+    void inject(Span publish, Headers headers) {
+        propagator.inject(publish.context(), headers,
+                (carrier, key, value) -> carrier.remove(key).add(key, value.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    // Stored traceparents are W3C, which is also the propagation type the service is configured with
+    private Span.Builder childOf(String traceParent) {
+        if (traceParent == null) {
+            return tracer.spanBuilder().setNoParent();
+        }
+        return propagator.extract(Map.of(TRACE_PARENT, traceParent), Map::get);
+    }
+}
@@ -1,10 +1,13 @@
 package com.ecommerce.command.service;
 
+import com.ecommerce.command.dto.BulkTagResponse;
 import com.ecommerce.command.dto.CreateProductRequest;
 import com.ecommerce.command.dto.ProductResponse;
 import com.ecommerce.command.dto.TagDto;
 import com.ecommerce.command.dto.UpdateProductRequest;
 
+import java.util.List;
+
 public interface ProductService {
     
     /**
@@ -36,4 +39,28 @@ public interface ProductService {
      * @param tagId The ID of the tag to remove
      */
     void removeTagFromProduct(Long productId, Long tagId);
+    
+    /**
+     * Replaces the tag set of a product
+     * @param productId The ID of the product
+     * @param tags The complete set of tags the product should have
+     * @return The bulk tag response
+     */
+    BulkTagResponse replaceProductTags(Long productId, List<TagDto> tags);
+    
+    /**
+     * Merges tags into the tag set of a product, overwriting values of tags it already has
+     * @param productId The ID of the product
+     * @param tags The tags to merge
+     * @return The bulk tag response
+     */
+    BulkTagResponse mergeProductTags(Long productId, List<TagDto> tags);
+    
+    /**
+     * Applies a tag to many products at once
+     * @param tagDto The tag details
+     * @param productIds The IDs of the products to tag
+     * @return The bulk tag response listing the products that were tagged
+     */
+    BulkTagResponse applyTagToProducts(TagDto tagDto, List<Long> productIds);
 }
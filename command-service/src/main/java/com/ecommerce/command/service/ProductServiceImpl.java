@@ -1,37 +1,67 @@
 package com.ecommerce.command.service;
 
+import com.ecommerce.command.cache.SkuExistenceFilter;
+import com.ecommerce.command.cache.TagDictionary;
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.datasource.ShardedBy;
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
 import com.ecommerce.command.domain.Inventory;
 import com.ecommerce.command.domain.Product;
 import com.ecommerce.command.domain.ProductTag;
 import com.ecommerce.command.domain.Tag;
+import com.ecommerce.command.dto.BulkTagResponse;
 import com.ecommerce.command.dto.CreateProductRequest;
 import com.ecommerce.command.dto.ProductResponse;
 import com.ecommerce.command.dto.TagDto;
 import com.ecommerce.command.dto.UpdateProductRequest;
 import com.ecommerce.command.exception.DuplicateResourceException;
 import com.ecommerce.command.exception.ResourceNotFoundException;
+import com.ecommerce.command.persistence.ProductRegistry;
+import com.ecommerce.command.persistence.StatementBudget;
 import com.ecommerce.command.repository.InventoryRepository;
 import com.ecommerce.command.repository.ProductRepository;
 import com.ecommerce.command.repository.ProductTagRepository;
 import com.ecommerce.command.repository.TagRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Service
+@WorkloadPool(Workload.CATALOG)
 public class ProductServiceImpl implements ProductService {
     
     private static final Logger log = LoggerFactory.getLogger(ProductServiceImpl.class);
     
+    private static final String SKU_CONSTRAINT = "uk_products_sku";
+    
     private final ProductRepository productRepository;
     private final TagRepository tagRepository;
     private final ProductTagRepository productTagRepository;
     private final InventoryRepository inventoryRepository;
+    private final TagDictionary tagDictionary;
+    private final SkuExistenceFilter skuExistenceFilter;
+    private final ProductRegistry productRegistry;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductSnapshotService productSnapshotService;
     private final OutboxService outboxService;
     private final ObjectMapper objectMapper;
     
@@ -40,36 +70,83 @@ public class ProductServiceImpl implements ProductService {
             TagRepository tagRepository,
             ProductTagRepository productTagRepository,
             InventoryRepository inventoryRepository,
+            TagDictionary tagDictionary,
+            SkuExistenceFilter skuExistenceFilter,
+            ProductRegistry productRegistry,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            ProductSnapshotService productSnapshotService,
             OutboxService outboxService,
             ObjectMapper objectMapper) {
         this.productRepository = productRepository;
         this.tagRepository = tagRepository;
         this.productTagRepository = productTagRepository;
         this.inventoryRepository = inventoryRepository;
+        this.tagDictionary = tagDictionary;
+        this.skuExistenceFilter = skuExistenceFilter;
+        this.productRegistry = productRegistry;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productSnapshotService = productSnapshotService;
         this.outboxService = outboxService;
         this.objectMapper = objectMapper;
     }
     
     @Override
-    @Transactional
+    @StatementBudget("7 + 4 * (#request.tags == null ? 0 : #request.tags.size())")
     public ProductResponse createProduct(CreateProductRequest request) {
         log.info("Creating new product with SKU: {}", request.getSku());
         
-        // Check if product with the same SKU already exists
-        if (productRepository.existsBySku(request.getSku())) {
+        if (!shardRouter.isEnabled()) {
+            return transactionTemplate.execute(status -> createProduct(request, null));
+        }
+        
+        // The registry on shard 0 claims the SKU and allocates the ID that decides the product's shard
+        Long productId = productRegistry.claim(request.getSku());
+        if (productId == null) {
             log.warn("Product with SKU '{}' already exists", request.getSku());
             throw new DuplicateResourceException("Product", "sku", request.getSku());
         }
+        try {
+            return ShardContext.call(shardRouter.shardFor(productId),
+                    () -> transactionTemplate.execute(status -> createProduct(request, productId)));
+        } catch (RuntimeException e) {
+            productRegistry.release(request.getSku(), productId);
+            throw e;
+        }
+    }
+    
+    private ProductResponse createProduct(CreateProductRequest request, Long allocatedId) {
+        // Check if product with the same SKU already exists, skipping the query when the filter rules it out.
+        // A product ID allocated by the registry means the SKU has already been claimed.
+        if (allocatedId == null && skuExistenceFilter.mightExist(request.getSku())) {
+            if (productRepository.existsBySku(request.getSku())) {
+                log.warn("Product with SKU '{}' already exists", request.getSku());
+                throw new DuplicateResourceException("Product", "sku", request.getSku());
+            }
+            skuExistenceFilter.recordFalsePositive();
+        }
         
         // Create product
         Product product = new Product();
+        product.setAllocatedId(allocatedId);
         product.setSku(request.getSku());
         product.setName(request.getName());
         product.setDescription(request.getDescription());
         product.setPrice(request.getPrice());
         
-        // Save product
-        product = productRepository.save(product);
+        // Save product, relying on the unique constraint for SKUs created by other instances. The ID comes
+        // from a sequence, so the insert is flushed here for a conflict to surface inside this try
+        try {
+            product = productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            if (!isSkuConflict(e)) {
+                throw e;
+            }
+            log.warn("Product with SKU '{}' was created concurrently", request.getSku());
+            throw new DuplicateResourceException("Product", "sku", request.getSku());
+        }
+        skuExistenceFilter.add(product.getSku());
         
         // Create inventory
         if (request.getInitialInventory() != null && request.getInitialInventory() > 0) {
@@ -87,12 +164,12 @@ public class ProductServiceImpl implements ProductService {
         if (request.getTags() != null && !request.getTags().isEmpty()) {
             log.debug("Adding {} tags to product with SKU: {}", request.getTags().size(), request.getSku());
             for (TagDto tagDto : request.getTags()) {
-                addTagInternal(product, tagDto);
+                product.getTags().add(addTagInternal(product, tagDto));
             }
         }
         
-        // Publish product created event
-        publishProductEvent(product, "created");
+        // Publish product created event as a full snapshot
+        productSnapshotService.publishSnapshot(product, "created");
         
         log.info("Product created successfully with ID: {}", product.getId());
         return ProductResponse.created(product.getId(), product.getSku(), product.getName());
@@ -100,6 +177,8 @@ public class ProductServiceImpl implements ProductService {
     
     @Override
     @Transactional
+    @ShardedBy("#productId")
+    @StatementBudget("5")
     public ProductResponse updateProduct(Long productId, UpdateProductRequest request) {
         log.info("Updating product with ID: {}", productId);
         
@@ -107,24 +186,47 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
         
-        // Update product
-        if (request.getName() != null) {
+        // Update product, tracking which fields actually changed
+        Map<String, Object> changedDetails = new LinkedHashMap<>();
+        if (request.getName() != null && !request.getName().equals(product.getName())) {
             product.setName(request.getName());
+            changedDetails.put("name", request.getName());
         }
         
-        if (request.getDescription() != null) {
+        if (request.getDescription() != null && !request.getDescription().equals(product.getDescription())) {
             product.setDescription(request.getDescription());
+            changedDetails.put("description", request.getDescription());
         }
         
-        if (request.getPrice() != null) {
+        BigDecimal previousPrice = product.getPrice();
+        boolean priceChanged = request.getPrice() != null && request.getPrice().compareTo(previousPrice) != 0;
+        if (priceChanged) {
             product.setPrice(request.getPrice());
         }
         
-        // Save product
-        product = productRepository.save(product);
+        if (changedDetails.isEmpty() && !priceChanged) {
+            log.info("Product with ID {} is unchanged, no event published", productId);
+            return ProductResponse.updated(productId);
+        }
+        
+        // Save product, flushing so that updatedAt is set
+        product = productRepository.saveAndFlush(product);
         
-        // Publish product updated event
-        publishProductEvent(product, "updated");
+        // Publish delta events with only the changed fields
+        if (priceChanged) {
+            Map<String, Object> payload = deltaPayload(productId);
+            payload.put("price", product.getPrice());
+            payload.put("previousPrice", previousPrice);
+            payload.put("updatedAt", product.getUpdatedAt());
+            publishProductDelta(productId, "price_changed", payload);
+        }
+        
+        if (!changedDetails.isEmpty()) {
+            Map<String, Object> payload = deltaPayload(productId);
+            payload.putAll(changedDetails);
+            payload.put("updatedAt", product.getUpdatedAt());
+            publishProductDelta(productId, "details_changed", payload);
+        }
         
         log.info("Product updated successfully with ID: {}", product.getId());
         return ProductResponse.updated(product.getId());
@@ -132,6 +234,8 @@ public class ProductServiceImpl implements ProductService {
     
     @Override
     @Transactional
+    @ShardedBy("#productId")
+    @StatementBudget("7")
     public Long addTagToProduct(Long productId, TagDto tagDto) {
         log.info("Adding tag '{}' to product with ID: {}", tagDto.getName(), productId);
         
@@ -142,8 +246,8 @@ public class ProductServiceImpl implements ProductService {
         // Add tag
         ProductTag productTag = addTagInternal(product, tagDto);
         
-        // Publish product updated event
-        publishProductEvent(product, "updated");
+        // Publish tag added event
+        publishTagAdded(product.getId(), productTag.getTag().getId(), tagDto);
         
         log.info("Tag added successfully to product with ID: {}", product.getId());
         return productTag.getTag().getId();
@@ -151,6 +255,8 @@ public class ProductServiceImpl implements ProductService {
     
     @Override
     @Transactional
+    @ShardedBy("#productId")
+    @StatementBudget("5")
     public void removeTagFromProduct(Long productId, Long tagId) {
         log.info("Removing tag with ID: {} from product with ID: {}", tagId, productId);
         
@@ -169,26 +275,119 @@ public class ProductServiceImpl implements ProductService {
         // Remove tag from product
         productTagRepository.delete(productTag);
         
-        // Publish product updated event
-        publishProductEvent(product, "updated");
+        // Publish tag removed event
+        Map<String, Object> payload = deltaPayload(product.getId());
+        payload.put("tagId", tag.getId().toString());
+        payload.put("tagName", tag.getName());
+        payload.put("timestamp", ZonedDateTime.now());
+        publishProductDelta(product.getId(), "tag_removed", payload);
         
         log.info("Tag removed successfully from product with ID: {}", product.getId());
     }
     
+    @Override
+    @Transactional
+    @ShardedBy("#productId")
+    @StatementBudget("3 + 2 * #tags.size()")
+    public BulkTagResponse replaceProductTags(Long productId, List<TagDto> tags) {
+        log.info("Replacing tags of product with ID: {} with {} tags", productId, tags.size());
+        
+        if (productRepository.findById(productId).isEmpty()) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        
+        Map<Long, TagDto> tagsById = resolveTags(tags);
+        productTagRepository.replaceTags(productId, toTagRows(tagsById));
+        
+        publishTagsChanged(productId, "REPLACED", tagsById);
+        
+        log.info("Tags replaced successfully for product with ID: {}", productId);
+        return BulkTagResponse.replaced(productId, new ArrayList<>(tagsById.keySet()));
+    }
+    
+    @Override
+    @Transactional
+    @ShardedBy("#productId")
+    @StatementBudget("3 + 2 * #tags.size()")
+    public BulkTagResponse mergeProductTags(Long productId, List<TagDto> tags) {
+        log.info("Merging {} tags into product with ID: {}", tags.size(), productId);
+        
+        if (productRepository.findById(productId).isEmpty()) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        
+        Map<Long, TagDto> tagsById = resolveTags(tags);
+        productTagRepository.mergeTags(productId, toTagRows(tagsById));
+        
+        publishTagsChanged(productId, "MERGED", tagsById);
+        
+        log.info("Tags merged successfully into product with ID: {}", productId);
+        return BulkTagResponse.merged(productId, new ArrayList<>(tagsById.keySet()));
+    }
+    
+    @Override
+    @WorkloadPool(Workload.BULK)
+    @StatementBudget("1 + 3 * #shards + #productIds.size()")
+    public BulkTagResponse applyTagToProducts(TagDto tagDto, List<Long> productIds) {
+        log.info("Applying tag '{}' to {} products", tagDto.getName(), productIds.size());
+        
+        Long tagId = ShardContext.call(0, () -> tagDictionary.resolve(tagDto.getName()));
+        
+        // Each shard tags its own products in a transaction of its own
+        List<Long> taggedProductIds = new ArrayList<>(productIds.size());
+        shardRouter.groupByShard(productIds, Function.identity()).forEach((shard, shardProductIds) ->
+                taggedProductIds.addAll(ShardContext.call(shard,
+                        () -> transactionTemplate.execute(status -> applyTag(tagDto, shardProductIds)))));
+        
+        log.info("Tag '{}' applied to {} of {} requested products", tagDto.getName(), taggedProductIds.size(), productIds.size());
+        return BulkTagResponse.applied(taggedProductIds, tagId);
+    }
+    
+    private List<Long> applyTag(TagDto tagDto, List<Long> productIds) {
+        // Resolved again within the shard's transaction, which copies the tag to the shard if needed
+        Long tagId = tagDictionary.resolve(tagDto.getName());
+        productTagRepository.applyTag(tagId, tagDto.getValue(), toJson(productIds));
+        
+        // Unknown product IDs were skipped by the insert and are absent here as well
+        List<Long> taggedProductIds = productRepository.findExistingIds(productIds);
+        for (Long productId : taggedProductIds) {
+            publishTagAdded(productId, tagId, tagDto);
+        }
+        return taggedProductIds;
+    }
+    
+    private Map<Long, TagDto> resolveTags(List<TagDto> tags) {
+        // Later entries win when the same tag name is given twice
+        Map<Long, TagDto> tagsById = new LinkedHashMap<>();
+        for (TagDto tagDto : tags) {
+            tagsById.put(tagDictionary.resolve(tagDto.getName()), tagDto);
+        }
+        return tagsById;
+    }
+    
+    private String toTagRows(Map<Long, TagDto> tagsById) {
+        List<Map<String, Object>> rows = new ArrayList<>(tagsById.size());
+        tagsById.forEach((tagId, tagDto) -> rows.add(Map.of("tag_id", tagId, "tag_value", tagDto.getValue())));
+        return toJson(rows);
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error serializing bulk tag parameters", e);
+        }
+    }
+    
     private ProductTag addTagInternal(Product product, TagDto tagDto) {
-        // Find or create tag
-        Tag tag = tagRepository.findByName(tagDto.getName())
-                .orElseGet(() -> {
-                    Tag newTag = new Tag();
-                    newTag.setName(tagDto.getName());
-                    return tagRepository.save(newTag);
-                });
+        // Resolve tag through the dictionary, creating it if needed
+        Tag tag = tagRepository.getReferenceById(tagDictionary.resolve(tagDto.getName()));
         
         // Check if product already has this tag
         Optional<ProductTag> existingTag = productTagRepository.findByProductAndTag(product, tag);
         if (existingTag.isPresent()) {
-            log.warn("Product with ID {} already has tag '{}'", product.getId(), tag.getName());
-            throw new DuplicateResourceException("Tag", "name", tag.getName());
+            log.warn("Product with ID {} already has tag '{}'", product.getId(), tagDto.getName());
+            throw new DuplicateResourceException("Tag", "name", tagDto.getName());
         }
         
         // Add tag to product
@@ -199,21 +398,59 @@ public class ProductServiceImpl implements ProductService {
         return productTagRepository.save(productTag);
     }
     
-    private void publishProductEvent(Product product, String eventType) {
+    private void publishTagAdded(Long productId, Long tagId, TagDto tagDto) {
+        Map<String, Object> payload = deltaPayload(productId);
+        payload.put("tagId", tagId.toString());
+        payload.put("tagName", tagDto.getName());
+        payload.put("tagValue", tagDto.getValue());
+        payload.put("timestamp", ZonedDateTime.now());
+        publishProductDelta(productId, "tag_added", payload);
+    }
+    
+    private void publishTagsChanged(Long productId, String mode, Map<Long, TagDto> tagsById) {
+        List<Map<String, Object>> tags = new ArrayList<>(tagsById.size());
+        tagsById.forEach((tagId, tagDto) -> {
+            Map<String, Object> tag = new LinkedHashMap<>();
+            tag.put("tagId", tagId.toString());
+            tag.put("name", tagDto.getName());
+            tag.put("value", tagDto.getValue());
+            tags.add(tag);
+        });
+        
+        Map<String, Object> payload = deltaPayload(productId);
+        payload.put("mode", mode);
+        payload.put("tags", tags);
+        payload.put("timestamp", ZonedDateTime.now());
+        publishProductDelta(productId, "tags_changed", payload);
+    }
+    
+    private Map<String, Object> deltaPayload(Long productId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("productId", productId.toString());
+        return payload;
+    }
+    
+    private void publishProductDelta(Long productId, String eventType, Map<String, Object> payload) {
         try {
-            String payload = objectMapper.writeValueAsString(product);
-            outboxService.createOutboxEvent("product", product.getId().toString(), eventType, payload);
+            outboxService.createOutboxEvent("product", productId.toString(), eventType, objectMapper.writeValueAsString(payload));
+            productSnapshotService.markChanged(productId);
         } catch (JsonProcessingException e) {
-            log.error("Error serializing product for event publishing", e);
+            log.error("Error serializing product delta for event publishing", e);
         }
     }
     
     private void publishInventoryEvent(Inventory inventory, String eventType) {
         try {
-            String payload = objectMapper.writeValueAsString(inventory);
+            String payload = objectMapper.writeValueAsString(InventoryEvents.payload(inventory));
             outboxService.createOutboxEvent("inventory", inventory.getId().toString(), eventType, payload);
         } catch (JsonProcessingException e) {
             log.error("Error serializing inventory for event publishing", e);
         }
     }
-}
\ No newline at end of file
+    
+    // Only a violation of the SKU's unique key means another instance created the product first
+    private static boolean isSkuConflict(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && SKU_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName());
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.domain.Product;
+
+public interface ProductSnapshotService {
+    
+    /**
+     * Publishes a full snapshot of a product, including its tags
+     * @param product The product to publish
+     * @param eventType The type of the event (e.g., "created", "snapshot")
+     */
+    void publishSnapshot(Product product, String eventType);
+    
+    /**
+     * Marks a product as changed by a delta event, so it is included in the next checkpoint
+     * @param productId The ID of the product
+     */
+    void markChanged(Long productId);
+    
+    /**
+     * Publishes snapshot checkpoints for all products changed since the previous checkpoint
+     */
+    void publishCheckpoints();
+}
@@ -0,0 +1,141 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
+import com.ecommerce.command.domain.Product;
+import com.ecommerce.command.domain.ProductTag;
+import com.ecommerce.command.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Service
+public class ProductSnapshotServiceImpl implements ProductSnapshotService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProductSnapshotServiceImpl.class);
+    
+    private final ProductRepository productRepository;
+    private final OutboxService outboxService;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> changedProductIds = ConcurrentHashMap.newKeySet();
+    
+    @Value("${product.snapshot.max-items-per-checkpoint:500}")
+    private int maxItemsPerCheckpoint;
+    
+    public ProductSnapshotServiceImpl(
+            ProductRepository productRepository,
+            OutboxService outboxService,
+            ObjectMapper objectMapper,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.outboxService = outboxService;
+        this.objectMapper = objectMapper;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Override
+    @Transactional
+    public void publishSnapshot(Product product, String eventType) {
+        List<Map<String, Object>> tags = new ArrayList<>(product.getTags().size());
+        for (ProductTag productTag : product.getTags()) {
+            Map<String, Object> tag = new LinkedHashMap<>();
+            tag.put("tagId", productTag.getTag().getId().toString());
+            tag.put("name", productTag.getTag().getName());
+            tag.put("value", productTag.getTagValue());
+            tags.add(tag);
+        }
+        
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("productId", product.getId().toString());
+        payload.put("sku", product.getSku());
+        payload.put("name", product.getName());
+        payload.put("description", product.getDescription());
+        payload.put("price", product.getPrice());
+        payload.put("updatedAt", product.getUpdatedAt());
+        payload.put("tags", tags);
+        
+        try {
+            outboxService.createOutboxEvent("product", product.getId().toString(), eventType,
+                    objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing product snapshot for event publishing", e);
+        }
+    }
+    
+    @Override
+    public void markChanged(Long productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changedProductIds.add(productId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changedProductIds.add(productId);
+            }
+        });
+    }
+    
+    @Override
+    @WorkloadPool(Workload.OUTBOX)
+    @Scheduled(fixedDelayString = "${product.snapshot.checkpoint-interval-ms:300000}")
+    public void publishCheckpoints() {
+        if (changedProductIds.isEmpty()) {
+            return;
+        }
+        
+        List<Long> batch = new ArrayList<>(Math.min(changedProductIds.size(), maxItemsPerCheckpoint));
+        Iterator<Long> iterator = changedProductIds.iterator();
+        while (iterator.hasNext() && batch.size() < maxItemsPerCheckpoint) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        
+        // Snapshots go to the outbox of the shard holding the product, one transaction per shard
+        shardRouter.groupByShard(batch, Function.identity()).forEach((shard, productIds) ->
+                ShardContext.run(shard, () -> transactionTemplate.executeWithoutResult(status -> publishCheckpoints(productIds))));
+    }
+    
+    private void publishCheckpoints(List<Long> productIds) {
+        // Put the product IDs back if the checkpoint transaction does not commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    changedProductIds.addAll(productIds);
+                }
+            }
+        });
+        
+        List<Product> products = productRepository.findAllWithTagsByIdIn(productIds);
+        for (Product product : products) {
+            publishSnapshot(product, "snapshot");
+        }
+        
+        log.info("Published {} product snapshot checkpoints", products.size());
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.dto.InventoryResponse;
+import com.ecommerce.command.dto.UpdateInventoryRequest;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public interface ReactiveInventoryService {
+    
+    /**
+     * Updates the inventory of a product without blocking the calling thread
+     * @param productId The ID of the product
+     * @param request The inventory update request
+     * @return The updated inventory information
+     */
+    Mono<InventoryResponse> updateInventory(Long productId, UpdateInventoryRequest request);
+    
+    /**
+     * Reserves stock for several products with one conditional update per product.
+     * Must be subscribed inside a reactive transaction so a failed reservation rolls back the others.
+     * @param quantities The quantity to reserve per product ID
+     * @return The resulting inventory level per product ID
+     */
+    Mono<Map<Long, Integer>> reserve(Map<Long, Integer> quantities);
+}
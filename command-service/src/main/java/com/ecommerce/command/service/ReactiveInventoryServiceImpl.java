@@ -0,0 +1,167 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.cache.InventoryLevelCache;
+import com.ecommerce.command.dto.InventoryResponse;
+import com.ecommerce.command.dto.UpdateInventoryRequest;
+import com.ecommerce.command.exception.InsufficientInventoryException;
+import com.ecommerce.command.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Readable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@ConditionalOnProperty(name = "datasource.sharding.enabled", havingValue = "false", matchIfMissing = true)
+public class ReactiveInventoryServiceImpl implements ReactiveInventoryService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveInventoryServiceImpl.class);
+    
+    private static final String RETURNING = " RETURNING id, product_id, quantity, version";
+    
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final ReactiveOutboxService reactiveOutboxService;
+    private final InventoryLevelCache inventoryLevelCache;
+    private final ObjectMapper objectMapper;
+    
+    public ReactiveInventoryServiceImpl(
+            DatabaseClient databaseClient,
+            TransactionalOperator transactionalOperator,
+            ReactiveOutboxService reactiveOutboxService,
+            InventoryLevelCache inventoryLevelCache,
+            ObjectMapper objectMapper) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.reactiveOutboxService = reactiveOutboxService;
+        this.inventoryLevelCache = inventoryLevelCache;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    public Mono<InventoryResponse> updateInventory(Long productId, UpdateInventoryRequest request) {
+        log.info("Updating inventory reactively for product with ID {}, change: {}", productId, request.getQuantityChange());
+        
+        int quantityChange = request.getQuantityChange();
+        OffsetDateTime now = OffsetDateTime.now();
+        
+        return productExists(productId)
+                .flatMap(exists -> exists
+                        ? applyChange(productId, quantityChange, now)
+                        : Mono.<InventoryRow>error(new ResourceNotFoundException("Product", "id", productId)))
+                .flatMap(row -> publishInventoryEvent(row, now).thenReturn(row))
+                .as(transactionalOperator::transactional)
+                // Runs after the commit, so the pre-check cache never sees uncommitted levels
+                .doOnNext(row -> inventoryLevelCache.putAfterCommit(productId, row.quantity()))
+                .map(row -> {
+                    log.info("Inventory updated successfully for product with ID: {}, new quantity: {}", productId, row.quantity());
+                    return InventoryResponse.updated(productId, row.quantity());
+                });
+    }
+    
+    @Override
+    public Mono<Map<Long, Integer>> reserve(Map<Long, Integer> quantities) {
+        OffsetDateTime now = OffsetDateTime.now();
+        
+        // The updates are issued without waiting on each other, so the driver pipelines them on the connection
+        return Flux.fromIterable(quantities.entrySet())
+                .flatMap(entry -> decrement(entry.getKey(), entry.getValue(), now)
+                        .flatMap(row -> publishInventoryEvent(row, now).thenReturn(row)))
+                .collectMap(InventoryRow::productId, InventoryRow::quantity);
+    }
+    
+    private Mono<Boolean> productExists(Long productId) {
+        return databaseClient.sql("SELECT 1 FROM products WHERE id = :productId")
+                .bind("productId", productId)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+    
+    private Mono<InventoryRow> applyChange(Long productId, int quantityChange, OffsetDateTime now) {
+        if (quantityChange < 0) {
+            return decrement(productId, Math.abs(quantityChange), now);
+        }
+        
+        String replenished = quantityChange > 0 ? ", last_replenishment_at = :now" : "";
+        return databaseClient.sql("UPDATE inventory SET quantity = quantity + :quantityChange, version = version + 1, " +
+                        "updated_at = :now" + replenished + " WHERE product_id = :productId" + RETURNING)
+                .bind("quantityChange", quantityChange)
+                .bind("now", now)
+                .bind("productId", productId)
+                .map(this::toRow)
+                .one()
+                .switchIfEmpty(Mono.defer(() -> insert(productId, quantityChange, now)));
+    }
+    
+    private Mono<InventoryRow> insert(Long productId, int quantity, OffsetDateTime now) {
+        return databaseClient.sql("INSERT INTO inventory (product_id, quantity, version, last_replenishment_at, updated_at) " +
+                        "VALUES (:productId, :quantity, 0, " + (quantity > 0 ? ":now" : "NULL") + ", :now)" + RETURNING)
+                .bind("productId", productId)
+                .bind("quantity", quantity)
+                .bind("now", now)
+                .map(this::toRow)
+                .one();
+    }
+    
+    // Guarded decrement: the row only changes when enough stock is left, so no lock or retry is needed
+    private Mono<InventoryRow> decrement(Long productId, int quantity, OffsetDateTime now) {
+        return databaseClient.sql("UPDATE inventory SET quantity = quantity - :quantity, version = version + 1, " +
+                        "updated_at = :now WHERE product_id = :productId AND quantity >= :quantity" + RETURNING)
+                .bind("quantity", quantity)
+                .bind("now", now)
+                .bind("productId", productId)
+                .map(this::toRow)
+                .one()
+                .switchIfEmpty(Mono.defer(() -> currentQuantity(productId)
+                        .defaultIfEmpty(0)
+                        .flatMap(available -> {
+                            log.warn("Insufficient inventory for product ID {}", productId);
+                            return Mono.error(new InsufficientInventoryException(productId, quantity, available));
+                        })));
+    }
+    
+    private Mono<Integer> currentQuantity(Long productId) {
+        return databaseClient.sql("SELECT quantity FROM inventory WHERE product_id = :productId")
+                .bind("productId", productId)
+                .map(row -> row.get("quantity", Integer.class))
+                .first();
+    }
+    
+    private InventoryRow toRow(Readable row) {
+        return new InventoryRow(
+                row.get("id", Long.class),
+                row.get("product_id", Long.class),
+                row.get("quantity", Integer.class),
+                row.get("version", Integer.class));
+    }
+    
+    private Mono<Void> publishInventoryEvent(InventoryRow row, OffsetDateTime updatedAt) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("inventoryId", row.id().toString());
+        payload.put("productId", row.productId().toString());
+        payload.put("quantity", row.quantity());
+        payload.put("version", row.version());
+        payload.put("updatedAt", updatedAt.toString());
+        try {
+            return reactiveOutboxService.createOutboxEvent("inventory", row.id().toString(), "updated",
+                    objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing inventory for event publishing", e);
+            return Mono.empty();
+        }
+    }
+    
+    private record InventoryRow(Long id, Long productId, Integer quantity, Integer version) {
+    }
+}
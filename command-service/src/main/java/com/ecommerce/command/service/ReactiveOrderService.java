@@ -0,0 +1,15 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.dto.CreateOrderRequest;
+import com.ecommerce.command.dto.OrderResponse;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveOrderService {
+    
+    /**
+     * Creates a new order over R2DBC without blocking the calling thread
+     * @param request The order creation request
+     * @return The created order information
+     */
+    Mono<OrderResponse> createOrder(CreateOrderRequest request);
+}
@@ -0,0 +1,200 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.cache.InventoryLevelCache;
+import com.ecommerce.command.domain.Money;
+import com.ecommerce.command.dto.CreateOrderRequest;
+import com.ecommerce.command.dto.OrderItemRequest;
+import com.ecommerce.command.dto.OrderResponse;
+import com.ecommerce.command.exception.ResourceNotFoundException;
+import com.ecommerce.command.persistence.OrderNumberRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@ConditionalOnProperty(name = "datasource.sharding.enabled", havingValue = "false", matchIfMissing = true)
+public class ReactiveOrderServiceImpl implements ReactiveOrderService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveOrderServiceImpl.class);
+    
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final ReactiveInventoryService reactiveInventoryService;
+    private final ReactiveOutboxService reactiveOutboxService;
+    private final InventoryLevelCache inventoryLevelCache;
+    private final ObjectMapper objectMapper;
+    
+    public ReactiveOrderServiceImpl(
+            DatabaseClient databaseClient,
+            TransactionalOperator transactionalOperator,
+            ReactiveInventoryService reactiveInventoryService,
+            ReactiveOutboxService reactiveOutboxService,
+            InventoryLevelCache inventoryLevelCache,
+            ObjectMapper objectMapper) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.reactiveInventoryService = reactiveInventoryService;
+        this.reactiveOutboxService = reactiveOutboxService;
+        this.inventoryLevelCache = inventoryLevelCache;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    public Mono<OrderResponse> createOrder(CreateOrderRequest request) {
+        log.info("Creating new order reactively with {} items", request.getItems().size());
+        
+        // Truncated to the column precision, as items reference the order by (id, created_at)
+        OffsetDateTime createdAt = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        
+        // Items for the same product reserve stock with a single update
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequest item : request.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        
+        return loadPrices(quantities.keySet().toArray(new Long[0]))
+                .flatMap(prices -> {
+                    for (Long productId : quantities.keySet()) {
+                        if (!prices.containsKey(productId)) {
+                            return Mono.error(new ResourceNotFoundException("Product", "id", productId));
+                        }
+                    }
+                    
+                    List<PricedItem> items = new ArrayList<>();
+                    long totalAmount = 0;
+                    for (OrderItemRequest item : request.getItems()) {
+                        Money unitPrice = Money.of(prices.get(item.getProductId()));
+                        Money totalPrice = unitPrice.times(item.getQuantity());
+                        items.add(new PricedItem(item.getProductId(), item.getQuantity(), unitPrice, totalPrice));
+                        totalAmount = Math.addExact(totalAmount, totalPrice.getMinorUnits());
+                    }
+                    BigDecimal orderTotal = Money.ofMinorUnits(totalAmount).toBigDecimal();
+                    
+                    return reactiveInventoryService.reserve(quantities)
+                            .flatMap(levels -> claimOrderNumber()
+                                    .flatMap(orderNumber -> insertOrder(orderNumber, orderTotal, createdAt)
+                                            .flatMap(orderId -> insertItems(orderId, createdAt, items)
+                                                    .flatMap(itemIds -> publishOrderEvent(orderId, orderNumber, orderTotal, createdAt, items, itemIds))
+                                                    .thenReturn(new PlacedOrder(orderId, orderNumber, orderTotal, levels)))));
+                })
+                .as(transactionalOperator::transactional)
+                .map(order -> {
+                    // Runs after the commit, so the pre-check cache never sees uncommitted levels
+                    order.inventoryLevels().forEach(inventoryLevelCache::putAfterCommit);
+                    log.info("Order created successfully with ID: {}, number: {}", order.orderId(), order.orderNumber());
+                    return OrderResponse.created(order.orderId(), order.orderNumber(), order.totalAmount());
+                });
+    }
+    
+    // The reactive counterpart of OrderNumberRegistry.claim, inside the order's transaction
+    private Mono<String> claimOrderNumber() {
+        return Flux.range(0, OrderNumberRegistry.MAX_ATTEMPTS)
+                .concatMap(attempt -> {
+                    String candidate = OrderNumbers.generate();
+                    return databaseClient.sql("INSERT INTO order_numbers (order_number) VALUES (:orderNumber) " +
+                                    "ON CONFLICT (order_number) DO NOTHING")
+                            .bind("orderNumber", candidate)
+                            .fetch()
+                            .rowsUpdated()
+                            .filter(rows -> rows == 1)
+                            .map(rows -> candidate);
+                })
+                .next()
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                        "No free order number after " + OrderNumberRegistry.MAX_ATTEMPTS + " attempts")));
+    }
+    
+    private Mono<Map<Long, BigDecimal>> loadPrices(Long[] productIds) {
+        return databaseClient.sql("SELECT id, price FROM products WHERE id = ANY(:productIds)")
+                .bind("productIds", productIds)
+                .map(row -> Map.entry(row.get("id", Long.class), row.get("price", BigDecimal.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+    
+    private Mono<Long> insertOrder(String orderNumber, BigDecimal totalAmount, OffsetDateTime createdAt) {
+        return databaseClient.sql("INSERT INTO orders (order_number, total_amount, created_at) " +
+                        "VALUES (:orderNumber, :totalAmount, :createdAt) RETURNING id")
+                .bind("orderNumber", orderNumber)
+                .bind("totalAmount", totalAmount)
+                .bind("createdAt", createdAt)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+    
+    // One statement with a binding per item; the driver sends all executions before reading any result
+    private Mono<List<Long>> insertItems(Long orderId, OffsetDateTime orderCreatedAt, List<PricedItem> items) {
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(
+                                    "INSERT INTO order_items (order_id, order_created_at, product_id, quantity, unit_price, total_price) " +
+                                    "VALUES ($1, $2, $3, $4, $5, $6)")
+                            .returnGeneratedValues("id");
+                    for (int i = 0; i < items.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        PricedItem item = items.get(i);
+                        statement.bind(0, orderId)
+                                .bind(1, orderCreatedAt)
+                                .bind(2, item.productId())
+                                .bind(3, item.quantity())
+                                .bind(4, item.unitPrice().toBigDecimal())
+                                .bind(5, item.totalPrice().toBigDecimal());
+                    }
+                    return Flux.from(statement.execute())
+                            .concatMap(result -> result.map((row, metadata) -> row.get("id", Long.class)));
+                })
+                .collectList();
+    }
+    
+    private Mono<Void> publishOrderEvent(Long orderId, String orderNumber, BigDecimal totalAmount,
+                                         OffsetDateTime createdAt, List<PricedItem> items, List<Long> itemIds) {
+        List<Map<String, Object>> itemPayloads = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            PricedItem item = items.get(i);
+            Map<String, Object> itemPayload = new LinkedHashMap<>();
+            itemPayload.put("itemId", itemIds.get(i).toString());
+            itemPayload.put("productId", item.productId().toString());
+            itemPayload.put("quantity", item.quantity());
+            itemPayload.put("unitPrice", item.unitPrice().toBigDecimal());
+            itemPayload.put("totalPrice", item.totalPrice().toBigDecimal());
+            itemPayloads.add(itemPayload);
+        }
+        
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", orderId.toString());
+        payload.put("orderNumber", orderNumber);
+        payload.put("totalAmount", totalAmount);
+        payload.put("createdAt", createdAt.toString());
+        payload.put("items", itemPayloads);
+        try {
+            return reactiveOutboxService.createOutboxEvent("order", orderId.toString(), "created",
+                    objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing order for event publishing", e);
+            return Mono.empty();
+        }
+    }
+    
+    private record PricedItem(Long productId, Integer quantity, Money unitPrice, Money totalPrice) {
+    }
+    
+    private record PlacedOrder(Long orderId, String orderNumber, BigDecimal totalAmount, Map<Long, Integer> inventoryLevels) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.ecommerce.command.service;
+
+import io.micrometer.tracing.Span;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Service
+@ConditionalOnProperty(name = "outbox.relay", havingValue = "reactive")
+public class ReactiveOutboxProcessorServiceImpl implements OutboxProcessorService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveOutboxProcessorServiceImpl.class);
+    
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final KafkaSender<String, String> kafkaSender;
+    private final OutboxTracing outboxTracing;
+    
+    @Value("${outbox.max-items-per-polling:100}")
+    private int maxItemsPerPolling;
+    
+    public ReactiveOutboxProcessorServiceImpl(
+            DatabaseClient databaseClient,
+            TransactionalOperator transactionalOperator,
+            KafkaSender<String, String> kafkaSender,
+            OutboxTracing outboxTracing) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.kafkaSender = kafkaSender;
+        this.outboxTracing = outboxTracing;
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${outbox.polling.interval.ms:1000}")
+    public void processOutboxEvents() {
+        // The scheduler thread only waits for the batch; claiming, sending and marking run on driver and producer threads
+        relayBatch()
+                .doOnError(e -> log.error("Error relaying outbox batch", e))
+                .onErrorResume(e -> Mono.empty())
+                .block();
+    }
+    
+    private Mono<Void> relayBatch() {
+        // SKIP LOCKED lets several instances relay concurrently without publishing the same row twice
+        return databaseClient.sql("SELECT id, aggregate_type, aggregate_id, event_type, CAST(payload AS text) AS payload, " +
+                        "created_at, trace_parent " +
+                        "FROM outbox_events WHERE processed = false ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED")
+                .bind("limit", maxItemsPerPolling)
+                .map(row -> new PendingEvent(
+                        row.get("id", Long.class),
+                        row.get("aggregate_type", String.class),
+                        row.get("aggregate_id", String.class),
+                        row.get("event_type", String.class),
+                        row.get("payload", String.class),
+                        row.get("created_at", OffsetDateTime.class),
+                        row.get("trace_parent", String.class)))
+                .all()
+                .collectList()
+                .flatMap(events -> events.isEmpty() ? Mono.<Void>empty() : send(events))
+                .as(transactionalOperator::transactional);
+    }
+    
+    // All records are handed to the producer at once and acknowledged as they complete
+    private Mono<Void> send(List<PendingEvent> events) {
+        log.info("Processing {} outbox events", events.size());
+        
+        return kafkaSender.send(Flux.fromIterable(events).flatMap(this::toRecord))
+                .filter(result -> {
+                    Span span = result.correlationMetadata().span();
+                    if (result.exception() != null) {
+                        span.error(result.exception());
+                        span.end();
+                        log.error("Error processing outbox event: id={}", result.correlationMetadata().eventId(), result.exception());
+                        return false;
+                    }
+                    span.end();
+                    return true;
+                })
+                .map(result -> result.correlationMetadata().eventId())
+                .collectList()
+                .flatMap(this::markProcessed);
+    }
+    
+    // The sender exposes no hand-over point, so a single publish span here covers publish and ack
+    private Mono<SenderRecord<String, String, InFlightEvent>> toRecord(PendingEvent event) {
+        try {
+            String topic = OutboxTopics.forAggregateType(event.aggregateType());
+            Span span = outboxTracing.startPublish(event.traceParent(),
+                    event.createdAt() != null ? event.createdAt().toInstant() : null,
+                    topic, event.eventType(), event.id());
+            ProducerRecord<String, String> record = OutboxTopics.record(topic, event.aggregateId(),
+                    event.eventType(), event.payload());
+            outboxTracing.inject(span, record.headers());
+            return Mono.just(SenderRecord.create(record, new InFlightEvent(event.id(), span)));
+        } catch (IllegalArgumentException e) {
+            log.error("Error processing outbox event: id={}", event.id(), e);
+            return Mono.empty();
+        }
+    }
+    
+    private Mono<Void> markProcessed(List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.sql("UPDATE outbox_events SET processed = true, processed_at = now() WHERE id = ANY(:ids)")
+                .bind("ids", eventIds.toArray(new Long[0]))
+                .fetch()
+                .rowsUpdated()
+                .doOnNext(rows -> log.debug("Marked {} outbox events as processed", rows))
+                .then();
+    }
+    
+    private record PendingEvent(Long id, String aggregateType, String aggregateId, String eventType, String payload,
+                                OffsetDateTime createdAt, String traceParent) {
+    }
+    
+    private record InFlightEvent(Long eventId, Span span) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.command.service;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveOutboxService {
+    
+    /**
+     * Writes an outbox event on the R2DBC connection of the surrounding reactive transaction
+     * @param aggregateType The type of the aggregate (e.g., "inventory", "order")
+     * @param aggregateId The ID of the aggregate
+     * @param eventType The type of the event (e.g., "created", "updated")
+     * @param payload The payload of the event in JSON format
+     * @return Completes once the row has been inserted
+     */
+    Mono<Void> createOutboxEvent(String aggregateType, String aggregateId, String eventType, String payload);
+}
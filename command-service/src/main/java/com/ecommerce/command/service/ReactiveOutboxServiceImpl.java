@@ -0,0 +1,43 @@
+package com.ecommerce.command.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnProperty(name = "datasource.sharding.enabled", havingValue = "false", matchIfMissing = true)
+public class ReactiveOutboxServiceImpl implements ReactiveOutboxService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveOutboxServiceImpl.class);
+    
+    private final DatabaseClient databaseClient;
+    private final OutboxTracing outboxTracing;
+    
+    public ReactiveOutboxServiceImpl(DatabaseClient databaseClient, OutboxTracing outboxTracing) {
+        this.databaseClient = databaseClient;
+        this.outboxTracing = outboxTracing;
+    }
+    
+    @Override
+    public Mono<Void> createOutboxEvent(String aggregateType, String aggregateId, String eventType, String payload) {
+        // Captured while the caller's span is still current; the insert itself runs later on a driver thread
+        String traceParent = outboxTracing.capture();
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql("INSERT INTO outbox_events " +
+                        "(aggregate_type, aggregate_id, event_type, payload, created_at, processed, trace_parent) " +
+                        "VALUES (:aggregateType, :aggregateId, :eventType, CAST(:payload AS jsonb), now(), false, :traceParent)")
+                .bind("aggregateType", aggregateType)
+                .bind("aggregateId", aggregateId)
+                .bind("eventType", eventType)
+                .bind("payload", payload);
+        insert = traceParent != null ? insert.bind("traceParent", traceParent) : insert.bindNull("traceParent", String.class);
+        return insert
+                .fetch()
+                .rowsUpdated()
+                .doOnNext(rows -> log.debug("Created outbox event: aggregateType={}, aggregateId={}, eventType={}",
+                        aggregateType, aggregateId, eventType))
+                .then();
+    }
+}
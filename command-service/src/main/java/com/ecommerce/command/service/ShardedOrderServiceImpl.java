@@ -0,0 +1,166 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.datasource.Workload;
+import com.ecommerce.command.datasource.WorkloadPool;
+import com.ecommerce.command.domain.Money;
+import com.ecommerce.command.domain.Order;
+import com.ecommerce.command.domain.OrderItem;
+import com.ecommerce.command.dto.CreateOrderRequest;
+import com.ecommerce.command.dto.OrderItemRequest;
+import com.ecommerce.command.dto.OrderResponse;
+import com.ecommerce.command.persistence.OrderNumberRegistry;
+import com.ecommerce.command.persistence.StatementBudget;
+import com.ecommerce.command.repository.OrderRepository;
+import com.ecommerce.command.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Places orders whose products may live on several shards, using a two-phase reservation.
+ * <p>
+ * First the inventory of every shard is reserved in a local transaction per shard, in shard
+ * order. The order itself is then written to shard 0. Once it has committed, the reservations
+ * are confirmed; if anything fails before, the reservations made so far are released. Orders
+ * whose coordinator stopped midway are settled by {@link InventoryReservationRecovery}.
+ */
+@Service
+@ConditionalOnProperty(name = "datasource.sharding.enabled", havingValue = "true")
+@WorkloadPool(Workload.ORDERS)
+public class ShardedOrderServiceImpl implements OrderService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ShardedOrderServiceImpl.class);
+    
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+    private final OrderNumberRegistry orderNumberRegistry;
+    private final ObjectMapper objectMapper;
+    
+    public ShardedOrderServiceImpl(
+            OrderRepository orderRepository,
+            ProductRepository productRepository,
+            InventoryReservationService inventoryReservationService,
+            ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            OutboxService outboxService,
+            OrderNumberRegistry orderNumberRegistry,
+            ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.inventoryReservationService = inventoryReservationService;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outboxService = outboxService;
+        this.orderNumberRegistry = orderNumberRegistry;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    @StatementBudget("3 + 2 * #shards + 7 * #request.items.size()")
+    public OrderResponse createOrder(CreateOrderRequest request) {
+        log.info("Creating new order with {} items", request.getItems().size());
+        
+        // Generate order number
+        String orderNumber = generateOrderNumber();
+        
+        // Items of the same product are reserved together
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            quantities.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+        }
+        
+        // Phase one: reserve the inventory on every shard, then write the order to shard 0
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        List<Integer> reservedShards = new ArrayList<>();
+        Order order;
+        try {
+            for (Map.Entry<Integer, List<Long>> shard : shardRouter.groupByShard(quantities.keySet(), Function.identity()).entrySet()) {
+                Map<Long, Integer> shardQuantities = new LinkedHashMap<>();
+                shard.getValue().forEach(productId -> shardQuantities.put(productId, quantities.get(productId)));
+                
+                prices.putAll(ShardContext.call(shard.getKey(),
+                        () -> inventoryReservationService.reserve(orderNumber, shardQuantities)));
+                reservedShards.add(shard.getKey());
+            }
+            
+            order = ShardContext.call(0, () -> transactionTemplate.execute(status -> saveOrder(orderNumber, request, prices)));
+        } catch (RuntimeException e) {
+            log.warn("Order {} could not be placed, releasing reservations on {} shards", orderNumber, reservedShards.size());
+            reservedShards.forEach(shard -> settle(shard, orderNumber, false));
+            throw e;
+        }
+        
+        // Phase two: the order has committed, so its reservations become final
+        reservedShards.forEach(shard -> settle(shard, orderNumber, true));
+        
+        log.info("Order created successfully with ID: {}, number: {}", order.getId(), order.getOrderNumber());
+        return OrderResponse.created(order.getId(), order.getOrderNumber(), order.getTotalAmount().toBigDecimal());
+    }
+    
+    @Override
+    public String generateOrderNumber() {
+        // Claimed before the order's transaction, as the reservations already carry it; a failed order leaves it unused
+        return orderNumberRegistry.claim(OrderNumbers::generate);
+    }
+    
+    private Order saveOrder(String orderNumber, CreateOrderRequest request, Map<Long, BigDecimal> prices) {
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+        
+        // Products may live on other shards, so items only carry a reference to the product ID
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProduct(productRepository.getReferenceById(itemRequest.getProductId()));
+            orderItem.setQuantity(itemRequest.getQuantity());
+            orderItem.setUnitPrice(Money.of(prices.get(itemRequest.getProductId())));
+            order.addItem(orderItem);
+        }
+        
+        order = orderRepository.save(order);
+        publishOrderEvent(order, "created");
+        return order;
+    }
+    
+    private void settle(int shard, String orderNumber, boolean confirm) {
+        try {
+            ShardContext.run(shard, () -> {
+                if (confirm) {
+                    inventoryReservationService.confirm(orderNumber);
+                } else {
+                    inventoryReservationService.release(orderNumber);
+                }
+            });
+        } catch (RuntimeException e) {
+            // The reservations stay pending and are settled by the recovery job
+            log.error("Could not settle reservations of order {} on shard {}", orderNumber, shard, e);
+        }
+    }
+    
+    private void publishOrderEvent(Order order, String eventType) {
+        try {
+            String payload = objectMapper.writeValueAsString(OrderEvents.payload(order));
+            outboxService.createOutboxEvent("order", order.getId().toString(), eventType, payload);
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing order for event publishing", e);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.ecommerce.command.warmup;
+
+import com.ecommerce.command.datasource.ShardContext;
+import com.ecommerce.command.datasource.ShardPools;
+import com.ecommerce.command.datasource.ShardRouter;
+import com.ecommerce.command.datasource.WorkloadRoutingDataSource;
+import com.ecommerce.command.dto.CreateOrderRequest;
+import com.ecommerce.command.dto.OrderItemRequest;
+import com.ecommerce.command.dto.OrderResponse;
+import com.ecommerce.command.dto.ProductResponse;
+import com.ecommerce.command.repository.ProductRepository;
+import com.ecommerce.command.repository.TagRepository;
+import com.ecommerce.command.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warms the service up after startup and before it reports ready (see {@link WarmupHealthIndicator}).
+ * It fills the Hikari pools, loads the most ordered products and all tags into the second-level
+ * cache, exercises JSON serialization, runs the order path in transactions that are rolled back,
+ * and fetches Kafka metadata so the producer is connected. The whole warm-up is bounded by
+ * {@code warmup.timeout-ms}; whatever has not finished by then is abandoned.
+ */
+@Component
+public class Warmup {
+    
+    private static final Logger log = LoggerFactory.getLogger(Warmup.class);
+    
+    private static final String HOT_PRODUCTS_SQL =
+            "SELECT product_id FROM order_items WHERE order_created_at > now() - make_interval(days => ?) " +
+            "GROUP BY product_id ORDER BY count(*) DESC LIMIT ?";
+    
+    // The product in stock ordered least over the same days, so the dry run's row locks meet no traffic
+    private static final String COLD_PRODUCT_SQL =
+            "SELECT i.product_id FROM inventory i LEFT JOIN order_items oi ON oi.product_id = i.product_id " +
+            "AND oi.order_created_at > now() - make_interval(days => ?) WHERE i.quantity > 0 " +
+            "GROUP BY i.product_id ORDER BY count(oi.product_id), i.product_id LIMIT 1";
+    
+    private final WorkloadRoutingDataSource workloadRoutingDataSource;
+    private final ShardPools shardPools;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final TagRepository tagRepository;
+    private final OrderService orderService;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    
+    private final boolean enabled;
+    private final Duration timeout;
+    private final int connectionsPerPool;
+    private final int hotProducts;
+    private final int hotProductDays;
+    private final int serializationIterations;
+    private final int orderIterations;
+    private final List<String> kafkaTopics;
+    
+    private final AtomicLong durationNanos = new AtomicLong();
+    private final Map<String, String> steps = new ConcurrentHashMap<>();
+    private volatile boolean complete;
+    private volatile boolean timedOut;
+    
+    public Warmup(
+            WorkloadRoutingDataSource workloadRoutingDataSource,
+            ShardPools shardPools,
+            ShardRouter shardRouter,
+            JdbcTemplate jdbcTemplate,
+            ProductRepository productRepository,
+            TagRepository tagRepository,
+            OrderService orderService,
+            KafkaTemplate<String, String> kafkaTemplate,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${warmup.enabled:true}") boolean enabled,
+            @Value("${warmup.timeout-ms:20000}") long timeoutMs,
+            @Value("${warmup.connections-per-pool:4}") int connectionsPerPool,
+            @Value("${warmup.hot-products:200}") int hotProducts,
+            @Value("${warmup.hot-product-days:7}") int hotProductDays,
+            @Value("${warmup.serialization-iterations:2000}") int serializationIterations,
+            @Value("${warmup.order-iterations:200}") int orderIterations,
+            @Value("${warmup.kafka-topics:products,inventory,orders}") List<String> kafkaTopics) {
+        this.workloadRoutingDataSource = workloadRoutingDataSource;
+        this.shardPools = shardPools;
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+        this.tagRepository = tagRepository;
+        this.orderService = orderService;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.connectionsPerPool = connectionsPerPool;
+        this.hotProducts = hotProducts;
+        this.hotProductDays = hotProductDays;
+        this.serializationIterations = serializationIterations;
+        this.orderIterations = orderIterations;
+        this.kafkaTopics = kafkaTopics;
+        TimeGauge.builder("warmup.duration", durationNanos, TimeUnit.NANOSECONDS, AtomicLong::doubleValue)
+                .description("Time the warm-up took before the service reported ready")
+                .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "warmup"));
+        CompletableFuture.runAsync(this::run, executor)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((result, failure) -> {
+                    executor.shutdownNow();
+                    timedOut = failure instanceof TimeoutException;
+                    durationNanos.set(System.nanoTime() - start);
+                    complete = true;
+                    if (timedOut) {
+                        log.warn("Warm-up did not finish within {}, reporting ready anyway", timeout);
+                    } else {
+                        log.info("Warm-up finished in {} ms", durationNanos.get() / 1_000_000);
+                    }
+                });
+    }
+    
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+    
+    public Duration getDuration() {
+        return Duration.ofNanos(durationNanos.get());
+    }
+    
+    /**
+     * @return The outcome of each step that has run so far: completed, failed, skipped or timed_out
+     */
+    public Map<String, String> getSteps() {
+        return Map.copyOf(steps);
+    }
+    
+    private void run() {
+        step("connection-pools", this::fillConnectionPools);
+        step("hot-products", this::loadHotProducts);
+        step("serialization", this::exerciseSerialization);
+        step("orders", this::dryRunOrders);
+        step("kafka", () -> kafkaTopics.forEach(kafkaTemplate::partitionsFor));
+    }
+    
+    // Steps reached after the timeout are recorded as skipped
+    private void step(String name, Runnable step) {
+        long start = System.nanoTime();
+        String outcome = "completed";
+        if (Thread.currentThread().isInterrupted()) {
+            outcome = "skipped";
+        } else {
+            try {
+                step.run();
+            } catch (RuntimeException e) {
+                outcome = Thread.currentThread().isInterrupted() ? "timed_out" : "failed";
+                log.warn("Warm-up step {} {}: {}", name, outcome, e.getMessage());
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("warmup.step")
+                .description("Time taken by each warm-up step")
+                .tag("step", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Warm-up step {} {} in {} ms", name, outcome, elapsed / 1_000_000);
+        steps.put(name, outcome);
+    }
+    
+    // Holding several connections at once makes each pool open them now rather than on the first requests
+    private void fillConnectionPools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        collectPools(workloadRoutingDataSource, pools);
+        shardPools.getShards().values().forEach(shard -> collectPools(shard, pools));
+        for (HikariDataSource pool : pools) {
+            List<Connection> connections = new ArrayList<>();
+            try {
+                for (int i = 0; i < Math.min(connectionsPerPool, pool.getMaximumPoolSize()); i++) {
+                    connections.add(pool.getConnection());
+                }
+            } catch (SQLException e) {
+                log.warn("Could not fill pool {}: {}", pool.getPoolName(), e.getMessage());
+            } finally {
+                connections.forEach(this::closeQuietly);
+            }
+        }
+    }
+    
+    private static void collectPools(WorkloadRoutingDataSource workloadPools, List<HikariDataSource> pools) {
+        for (DataSource pool : workloadPools.getResolvedDataSources().values()) {
+            if (pool instanceof HikariDataSource hikari) {
+                pools.add(hikari);
+            }
+        }
+    }
+    
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Could not return a warm-up connection: {}", e.getMessage());
+        }
+    }
+    
+    // Orders live on shard 0; their products and the tags are loaded on every shard that holds them
+    private void loadHotProducts() {
+        List<Long> ids = ShardContext.call(0,
+                () -> jdbcTemplate.queryForList(HOT_PRODUCTS_SQL, Long.class, hotProductDays, hotProducts));
+        shardRouter.groupByShard(ids, id -> id).forEach((shard, shardIds) ->
+                ShardContext.run(shard, () -> productRepository.findAllById(shardIds)));
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            ShardContext.run(shard, tagRepository::findAll);
+        }
+        log.debug("Warm-up loaded {} hot products", ids.size());
+    }
+    
+    private void exerciseSerialization() {
+        try {
+            for (int i = 0; i < serializationIterations && !Thread.currentThread().isInterrupted(); i++) {
+                CreateOrderRequest request = orderRequest((long) i, 1 + i % 5);
+                objectMapper.readValue(objectMapper.writeValueAsBytes(request), CreateOrderRequest.class);
+                objectMapper.readValue(objectMapper.writeValueAsBytes(
+                        OrderResponse.created((long) i, "ORD-WARMUP-" + i, BigDecimal.valueOf(i, 2))), OrderResponse.class);
+                objectMapper.writeValueAsString(ProductResponse.created((long) i, "WARMUP-" + i, "Warm-up"));
+                objectMapper.readValue(objectMapper.writeValueAsString(
+                        Map.of("productId", i, "price", BigDecimal.valueOf(i, 2), "description", "warm-up")), Map.class);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Serialization failed", e);
+        }
+    }
+    
+    // Each order runs in a transaction that is rolled back, so nothing is persisted or published.
+    // The decrement still locks the product's inventory row until the rollback, so the orders go to
+    // the least ordered product: on a hot one they would queue behind the traffic other instances serve.
+    // Sharded orders reserve inventory in transactions of their own and are not dry-run.
+    private void dryRunOrders() {
+        if (shardRouter.isEnabled()) {
+            log.debug("Skipping the order dry run with sharding enabled");
+            return;
+        }
+        Long productId = jdbcTemplate.queryForList(COLD_PRODUCT_SQL, Long.class, hotProductDays).stream()
+                .findFirst()
+                .orElse(null);
+        if (productId == null) {
+            log.debug("Skipping the order dry run, no product has inventory");
+            return;
+        }
+        for (int i = 0; i < orderIterations && !Thread.currentThread().isInterrupted(); i++) {
+            CreateOrderRequest request = orderRequest(productId, 1);
+            transactionTemplate.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                orderService.createOrder(request);
+            });
+        }
+    }
+    
+    private static CreateOrderRequest orderRequest(Long productId, int lines) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        for (int line = 0; line < lines; line++) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(productId + line);
+            item.setQuantity(1);
+            request.getItems().add(item);
+        }
+        return request;
+    }
+}
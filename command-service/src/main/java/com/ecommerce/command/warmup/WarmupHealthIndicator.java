@@ -0,0 +1,33 @@
+package com.ecommerce.command.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the readiness group out of service until the warm-up has finished or timed out. The
+ * indicator is the {@code warmup} contributor (its bean name without the suffix) and part of
+ * {@code management.endpoint.health.group.readiness}, so load balancers and Kubernetes only route
+ * traffic to an instance that is already warm.
+ */
+@Component
+public class WarmupHealthIndicator implements HealthIndicator {
+    
+    private final Warmup warmup;
+    
+    public WarmupHealthIndicator(Warmup warmup) {
+        this.warmup = warmup;
+    }
+    
+    @Override
+    public Health health() {
+        if (!warmup.isComplete()) {
+            return Health.outOfService().withDetail("steps", warmup.getSteps()).build();
+        }
+        return Health.up()
+                .withDetail("durationMs", warmup.getDuration().toMillis())
+                .withDetail("timedOut", warmup.isTimedOut())
+                .withDetail("steps", warmup.getSteps())
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+-- Indexes for the hot command paths, built without blocking writes. CONCURRENTLY cannot run
+-- inside a transaction, so this script holds nothing else and Flyway runs it outside one.
+-- A failed build leaves an invalid index behind; drop it before repairing and re-running.
+
+-- Outbox relay: oldest unprocessed events first, and the backlog count
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_outbox_events_unprocessed
+    ON outbox_events (created_at) WHERE processed = false;
+
+-- One inventory row per product; also serves the per-product lookups and locks
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_inventory_product_id
+    ON inventory (product_id);
+
+-- Tag to products; (product_id, tag_id) is already covered by its unique constraint
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_product_tags_tag_id
+    ON product_tags (tag_id);
+
+-- Tag dictionary lookups and the ON CONFLICT (name) insert
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_tags_name
+    ON tags (name);
+
+-- Order items of an order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_order_items_order_id
+    ON order_items (order_id);
@@ -0,0 +1,19 @@
+-- Databases first created by Hibernate carry its own unique constraints on tags(name) and
+-- inventory(product_id), named differently across Hibernate versions. The unique indexes
+-- from V2 enforce the same rules, so the duplicates are only write overhead.
+DO $$
+DECLARE
+    duplicate RECORD;
+BEGIN
+    FOR duplicate IN
+        SELECT c.conrelid::regclass AS table_name, c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.contype = 'u'
+          AND array_length(c.conkey, 1) = 1
+          AND ((c.conrelid = 'tags'::regclass AND a.attname = 'name')
+            OR (c.conrelid = 'inventory'::regclass AND a.attname = 'product_id'))
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', duplicate.table_name, duplicate.conname);
+    END LOOP;
+END $$;
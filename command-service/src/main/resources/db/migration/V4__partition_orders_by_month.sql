@@ -0,0 +1,123 @@
+-- Range-partitions orders and order_items by month of the order's creation time.
+--
+-- A partitioned table's keys must include the partition key, so orders is keyed by
+-- (id, created_at) and order_items carries the creation time of its order in
+-- order_created_at. Items are partitioned on that column, which keeps an order and its items
+-- in the same month and lets the foreign key reference (id, created_at). For the same reason
+-- orders can no longer keep order numbers unique; each number is claimed in the unpartitioned
+-- order_numbers table instead.
+--
+-- Existing rows are copied into the new tables inside this migration's transaction; large
+-- tables should be migrated in a maintenance window.
+
+CREATE SCHEMA IF NOT EXISTS order_archive;
+
+-- Creates the monthly orders and order_items partitions from the month of from_date up to
+-- months_ahead months later. Returns the number of months for which partitions were created.
+CREATE OR REPLACE FUNCTION create_order_partitions(from_date DATE, months_ahead INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_date);
+    lower_bound TIMESTAMPTZ;
+    upper_bound TIMESTAMPTZ;
+    suffix TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        lower_bound := make_timestamptz(extract(year FROM month_start)::INTEGER,
+                                        extract(month FROM month_start)::INTEGER, 1, 0, 0, 0, 'UTC');
+        upper_bound := lower_bound + INTERVAL '1 month';
+        suffix := to_char(month_start, '"p"YYYY_MM');
+        IF to_regclass(format('orders_%s', suffix)) IS NULL THEN
+            EXECUTE format('CREATE TABLE orders_%s PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                           suffix, lower_bound, upper_bound);
+            EXECUTE format('CREATE TABLE order_items_%s PARTITION OF order_items FOR VALUES FROM (%L) TO (%L)',
+                           suffix, lower_bound, upper_bound);
+            created := created + 1;
+        END IF;
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Keep the id sequences; they would otherwise be dropped with the old tables
+ALTER SEQUENCE orders_id_seq OWNED BY NONE;
+ALTER SEQUENCE order_items_id_seq OWNED BY NONE;
+
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+DROP INDEX IF EXISTS ix_order_items_order_id;
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL DEFAULT nextval('orders_id_seq'),
+    order_number VARCHAR(50) NOT NULL,
+    total_amount NUMERIC(12,2) NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_orders PRIMARY KEY (id, created_at),
+    CONSTRAINT uk_orders_order_number_created_at UNIQUE (order_number, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE order_items (
+    id BIGINT NOT NULL DEFAULT nextval('order_items_id_seq'),
+    order_id BIGINT NOT NULL,
+    order_created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    product_id BIGINT REFERENCES products (id),
+    quantity INTEGER NOT NULL,
+    unit_price NUMERIC(12,2) NOT NULL,
+    total_price NUMERIC(12,2) NOT NULL,
+    CONSTRAINT pk_order_items PRIMARY KEY (id, order_created_at),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id, order_created_at) REFERENCES orders (id, created_at),
+    CONSTRAINT ck_order_items_positive_quantity CHECK (quantity > 0)
+) PARTITION BY RANGE (order_created_at);
+
+-- Created on the parent, so every partition gets its own copy
+CREATE INDEX ix_order_items_order_id ON order_items (order_id);
+
+-- One row per order number ever handed out; claims older than the order retention are purged
+CREATE TABLE order_numbers (
+    order_number VARCHAR(50) PRIMARY KEY,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX ix_order_numbers_created_at ON order_numbers (created_at);
+
+ALTER SEQUENCE orders_id_seq OWNED BY orders.id;
+ALTER SEQUENCE order_items_id_seq OWNED BY order_items.id;
+
+-- Partitions for all existing orders and the coming months; bounds are UTC months
+SELECT create_order_partitions(first_month, (extract(year FROM age(current_month, first_month)) * 12
+                                             + extract(month FROM age(current_month, first_month)))::INTEGER + 3)
+FROM (SELECT date_trunc('month', (LEAST(COALESCE(min(created_at), now()), now()) AT TIME ZONE 'UTC'))::DATE AS first_month,
+             date_trunc('month', (now() AT TIME ZONE 'UTC'))::DATE AS current_month
+      FROM orders_unpartitioned) bounds;
+
+INSERT INTO orders (id, order_number, total_amount, created_at)
+SELECT id, order_number, total_amount, COALESCE(created_at, CURRENT_TIMESTAMP)
+FROM orders_unpartitioned;
+
+INSERT INTO order_numbers (order_number, created_at)
+SELECT order_number, created_at FROM orders;
+
+-- Items must belong to an order to be partitioned with it; rather than dropping any, stop here
+DO $$
+DECLARE
+    orphans BIGINT;
+BEGIN
+    SELECT count(*) INTO orphans
+    FROM order_items_unpartitioned i
+    LEFT JOIN orders_unpartitioned o ON o.id = i.order_id
+    WHERE o.id IS NULL;
+    IF orphans > 0 THEN
+        RAISE EXCEPTION '% order_items rows have no order; assign or delete them before migrating', orphans;
+    END IF;
+END;
+$$;
+
+INSERT INTO order_items (id, order_id, order_created_at, product_id, quantity, unit_price, total_price)
+SELECT i.id, i.order_id, COALESCE(o.created_at, CURRENT_TIMESTAMP), i.product_id, i.quantity, i.unit_price, i.total_price
+FROM order_items_unpartitioned i
+JOIN orders_unpartitioned o ON o.id = i.order_id;
+
+DROP TABLE order_items_unpartitioned;
+DROP TABLE orders_unpartitioned;
@@ -0,0 +1,33 @@
+-- Tables used when products are sharded (datasource.sharding.enabled=true). Every shard runs
+-- the same migrations, so they exist everywhere but are only written where noted.
+
+-- Shard 0 only: claims each SKU once across all shards and hands out the product ID that
+-- decides the product's shard
+CREATE TABLE product_registry (
+    sku VARCHAR(50) PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_product_registry_product_id UNIQUE (product_id)
+);
+
+-- Products created before the registry existed keep their SKU claims
+INSERT INTO product_registry (sku, product_id, created_at)
+SELECT sku, id, COALESCE(created_at, CURRENT_TIMESTAMP) FROM products;
+
+-- Every shard: stock held for an order until the order is confirmed or released
+CREATE TABLE inventory_reservations (
+    id BIGSERIAL PRIMARY KEY,
+    order_number VARCHAR(50) NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT ck_inventory_reservations_positive_quantity CHECK (quantity > 0)
+);
+
+CREATE INDEX ix_inventory_reservations_order_number ON inventory_reservations (order_number);
+CREATE INDEX ix_inventory_reservations_pending ON inventory_reservations (created_at) WHERE status = 'PENDING';
+
+-- Orders stay on shard 0 while their products may live on any shard
+ALTER TABLE order_items DROP CONSTRAINT IF EXISTS order_items_product_id_fkey;
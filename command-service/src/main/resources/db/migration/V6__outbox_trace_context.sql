@@ -0,0 +1,3 @@
+-- W3C traceparent of the span that wrote the event, so the relay can continue that trace when
+-- it publishes. NULL for events written outside a trace.
+ALTER TABLE outbox_events ADD COLUMN trace_parent VARCHAR(55);
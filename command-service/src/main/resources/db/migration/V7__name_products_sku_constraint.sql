@@ -0,0 +1,23 @@
+-- Databases first created by Hibernate carry its generated name for the unique constraint on
+-- products(sku). createProduct tells a duplicate SKU from other violations by the name V1 gives
+-- that constraint, so databases baselined at V1 get the same name.
+DO $$
+DECLARE
+    sku_constraint RECORD;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'products'::regclass AND conname = 'uk_products_sku') THEN
+        FOR sku_constraint IN
+            SELECT c.conname
+            FROM pg_constraint c
+            JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+            WHERE c.contype = 'u'
+              AND array_length(c.conkey, 1) = 1
+              AND c.conrelid = 'products'::regclass
+              AND a.attname = 'sku'
+            LIMIT 1
+        LOOP
+            EXECUTE format('ALTER TABLE products RENAME CONSTRAINT %I TO uk_products_sku', sku_constraint.conname);
+        END LOOP;
+    END IF;
+END $$;
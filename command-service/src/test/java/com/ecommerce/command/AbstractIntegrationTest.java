@@ -0,0 +1,45 @@
+package com.ecommerce.command;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Boots the service against a PostgreSQL and a Kafka container, the same images as
+ * docker-compose. The containers are started once per JVM and shared by every subclass; Flyway
+ * migrates the database when the first context starts.
+ */
+public abstract class AbstractIntegrationTest {
+    
+    protected static final PostgreSQLContainer<?> POSTGRES =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:14-alpine"))
+                    .withDatabaseName("ecommerce");
+    
+    protected static final KafkaContainer KAFKA =
+            new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.4.0"));
+    
+    static {
+        POSTGRES.start();
+        KAFKA.start();
+    }
+    
+    @DynamicPropertySource
+    static void containerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.r2dbc.url", () -> String.format("r2dbc:postgresql://%s:%d/%s",
+                POSTGRES.getHost(), POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
+                POSTGRES.getDatabaseName()));
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+        registry.add("spring.kafka.bootstrap-servers", KAFKA::getBootstrapServers);
+        // Payloads are JSON strings; without a Schema Registry the relay sends them as they are
+        registry.add("spring.kafka.producer.value-serializer",
+                () -> "org.apache.kafka.common.serialization.StringSerializer");
+        registry.add("management.server.port", () -> "0");
+        registry.add("warmup.enabled", () -> "false");
+    }
+}
@@ -0,0 +1,276 @@
+package com.ecommerce.command.persistence;
+
+import com.ecommerce.command.AbstractIntegrationTest;
+import com.ecommerce.command.domain.InventoryReservation;
+import com.ecommerce.command.repository.InventoryRepository;
+import com.ecommerce.command.repository.InventoryReservationRepository;
+import com.ecommerce.command.repository.OrderRepository;
+import com.ecommerce.command.repository.OutboxRepository;
+import com.ecommerce.command.repository.ProductRepository;
+import com.ecommerce.command.repository.ProductTagRepository;
+import com.ecommerce.command.repository.TagRepository;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.ChainListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Checks that every repository query can be answered from an index. Each query method is called
+ * in a rolled back transaction, the statements it runs are captured from the SQL instrumentation
+ * proxy, and {@code EXPLAIN} is run for them with their bound parameters and sequential scans
+ * disabled: on the empty test tables the planner would rightly prefer a sequential scan, so
+ * disabling it shows whether an index path exists at all. A new repository query method fails
+ * {@link #everyQueryMethodIsChecked()} until it gets a call in {@link #queries()}.
+ */
+@SpringBootTest
+class QueryPlanIT extends AbstractIntegrationTest {
+    
+    private static final List<Long> IDS = List.of(1L, 2L, 3L);
+    
+    private static final String TAG_ROWS = "[{\"tag_id\": 1, \"tag_value\": \"red\"}, {\"tag_id\": 2, \"tag_value\": \"large\"}]";
+    
+    // Dated mid-month, so its lookup window lies within one monthly partition
+    private static final String ORDER_NUMBER = "ORD-"
+            + LocalDate.now(ZoneOffset.UTC).withDayOfMonth(15).format(OrderRepository.ORDER_NUMBER_DATE) + "-10000";
+    
+    // Query methods left out on purpose, with the reason
+    private static final Map<String, String> NOT_CHECKED = Map.of(
+            "ProductRepository.streamAllSkus", "reads every SKU to build the SKU filter",
+            "OutboxRepository.findByAggregateTypeAndAggregateIdAndEventType", "not called anywhere");
+    
+    private static final ThreadLocal<List<CapturedStatement>> CAPTURED = new ThreadLocal<>();
+    
+    private static final QueryExecutionListener CAPTURE = new QueryExecutionListener() {
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+        
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            List<CapturedStatement> captured = CAPTURED.get();
+            if (captured == null) {
+                return;
+            }
+            for (QueryInfo queryInfo : queryInfoList) {
+                List<List<ParameterSetOperation>> parameters = queryInfo.getParametersList();
+                captured.add(new CapturedStatement(queryInfo.getQuery(),
+                        parameters.isEmpty() ? List.of() : List.copyOf(parameters.get(0))));
+            }
+        }
+    };
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    
+    @Autowired
+    private InventoryReservationRepository inventoryReservationRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OutboxRepository outboxRepository;
+    
+    @Autowired
+    private ProductTagRepository productTagRepository;
+    
+    @Autowired
+    private TagRepository tagRepository;
+    
+    @Autowired
+    private ProductRegistry productRegistry;
+    
+    @Autowired
+    private OrderNumberRegistry orderNumberRegistry;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private ApplicationContext applicationContext;
+    
+    @BeforeEach
+    void captureStatements() {
+        ChainListener listeners = ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener();
+        if (!listeners.getListeners().contains(CAPTURE)) {
+            listeners.addListener(CAPTURE);
+        }
+    }
+    
+    private Map<String, Runnable> queries() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        
+        queries.put("ProductRepository.findBySku", () -> productRepository.findBySku("SKU-1"));
+        queries.put("ProductRepository.existsBySku", () -> productRepository.existsBySku("SKU-1"));
+        queries.put("ProductRepository.findAllWithTagsByIdIn", () -> productRepository.findAllWithTagsByIdIn(IDS));
+        queries.put("ProductRepository.findPricesByIdIn", () -> productRepository.findPricesByIdIn(IDS));
+        queries.put("ProductRepository.findExistingIds", () -> productRepository.findExistingIds(IDS));
+        
+        queries.put("InventoryRepository.findByProduct",
+                () -> inventoryRepository.findByProduct(productRepository.getReferenceById(1L)));
+        queries.put("InventoryRepository.findByProductIdWithLock", () -> inventoryRepository.findByProductIdWithLock(1L));
+        queries.put("InventoryRepository.findByProductIdForUpdate", () -> inventoryRepository.findByProductIdForUpdate(1L));
+        queries.put("InventoryRepository.findByProductId", () -> inventoryRepository.findByProductId(1L));
+        queries.put("InventoryRepository.decrementIfAvailable",
+                () -> inventoryRepository.decrementIfAvailable(1L, 1, ZonedDateTime.now()));
+        queries.put("InventoryRepository.findQuantityByProductId", () -> inventoryRepository.findQuantityByProductId(1L));
+        
+        queries.put("InventoryReservationRepository.findByOrderNumberAndStatus",
+                () -> inventoryReservationRepository.findByOrderNumberAndStatus(
+                        ORDER_NUMBER, InventoryReservation.Status.PENDING));
+        queries.put("InventoryReservationRepository.findPendingOrderNumbersCreatedBefore",
+                () -> inventoryReservationRepository.findPendingOrderNumbersCreatedBefore(
+                        ZonedDateTime.now(), PageRequest.of(0, 100)));
+        
+        // Called the way the services call them, through the date-bounded default methods
+        queries.put("OrderRepository.findByOrderNumberAndCreatedAtBetween",
+                () -> orderRepository.findByOrderNumber(ORDER_NUMBER));
+        queries.put("OrderRepository.existsByOrderNumberAndCreatedAtBetween",
+                () -> orderRepository.existsByOrderNumber(ORDER_NUMBER));
+        
+        queries.put("OutboxRepository.findUnprocessedEventsOrderByCreatedAt",
+                () -> outboxRepository.findUnprocessedEventsOrderByCreatedAt(100));
+        queries.put("OutboxRepository.countByProcessedFalse", () -> outboxRepository.countByProcessedFalse());
+        
+        queries.put("ProductTagRepository.findByProductAndTag", () -> productTagRepository.findByProductAndTag(
+                productRepository.getReferenceById(1L), tagRepository.getReferenceById(1L)));
+        queries.put("ProductTagRepository.existsByProductAndTag", () -> productTagRepository.existsByProductAndTag(
+                productRepository.getReferenceById(1L), tagRepository.getReferenceById(1L)));
+        queries.put("ProductTagRepository.deleteByProductAndTag", () -> productTagRepository.deleteByProductAndTag(
+                productRepository.getReferenceById(1L), tagRepository.getReferenceById(1L)));
+        queries.put("ProductTagRepository.replaceTags", () -> productTagRepository.replaceTags(1L, TAG_ROWS));
+        queries.put("ProductTagRepository.mergeTags", () -> productTagRepository.mergeTags(1L, TAG_ROWS));
+        queries.put("ProductTagRepository.applyTag", () -> productTagRepository.applyTag(1L, "red", "[1, 2, 3]"));
+        
+        queries.put("TagRepository.findByName", () -> tagRepository.findByName("color"));
+        queries.put("TagRepository.insertIfAbsent", () -> tagRepository.insertIfAbsent("color"));
+        queries.put("TagRepository.insertWithIdIfAbsent", () -> tagRepository.insertWithIdIfAbsent(1L, "color"));
+        queries.put("TagRepository.findIdByName", () -> tagRepository.findIdByName("color"));
+        
+        // The registries' JDBC statements on shard 0
+        queries.put("ProductRegistry.claim", () -> productRegistry.claim("SKU-1"));
+        queries.put("ProductRegistry.lookup", () -> productRegistry.lookup("SKU-1"));
+        queries.put("ProductRegistry.release", () -> productRegistry.release("SKU-1", 1L));
+        queries.put("OrderNumberRegistry.claim", () -> orderNumberRegistry.claim(() -> ORDER_NUMBER));
+        return queries;
+    }
+    
+    @TestFactory
+    Stream<DynamicTest> queryHasUsableIndex() {
+        return queries().entrySet().stream().map(query -> dynamicTest(query.getKey(), () -> {
+            List<CapturedStatement> statements = capture(query.getValue());
+            assertThat(statements).as("%s ran no SQL", query.getKey()).isNotEmpty();
+            for (CapturedStatement statement : statements) {
+                List<String> plan = explain(statement, false);
+                assertThat(plan)
+                        .as("%s has no usable index:%n%s%n%s", query.getKey(), statement.sql(), String.join("\n", plan))
+                        .noneMatch(line -> line.contains("Seq Scan"));
+            }
+        }));
+    }
+    
+    @Test
+    void everyQueryMethodIsChecked() {
+        Repositories repositories = new Repositories(applicationContext);
+        Set<String> queryMethods = new TreeSet<>();
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            information.getQueryMethods().forEach(method ->
+                    queryMethods.add(information.getRepositoryInterface().getSimpleName() + "." + method.getName()));
+        }
+        
+        Set<String> checked = new HashSet<>(queries().keySet());
+        checked.addAll(NOT_CHECKED.keySet());
+        assertThat(checked).as("query methods without a plan check").containsAll(queryMethods);
+    }
+    
+    @Test
+    void orderNumberLookupStaysInOnePartition() throws Exception {
+        // Lookups by order number are bounded by the date in the number
+        List<CapturedStatement> statements = capture(() -> orderRepository.findByOrderNumber(ORDER_NUMBER));
+        assertThat(statements).hasSize(1);
+        List<String> plan = explain(statements.get(0), true);
+        assertThat(plan.stream().filter(line -> line.contains(" on orders_p")))
+                .as("partitions scanned:%n%s", String.join("\n", plan))
+                .hasSize(1);
+    }
+    
+    private List<CapturedStatement> capture(Runnable call) {
+        List<CapturedStatement> captured = new ArrayList<>();
+        CAPTURED.set(captured);
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                call.run();
+            });
+        } finally {
+            CAPTURED.remove();
+        }
+        return captured;
+    }
+    
+    private static List<String> explain(CapturedStatement statement, boolean seqScanAllowed) throws Exception {
+        try (Connection connection = DriverManager.getConnection(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())) {
+            try (Statement settings = connection.createStatement()) {
+                settings.execute("SET enable_seqscan = " + (seqScanAllowed ? "on" : "off"));
+            }
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+                for (ParameterSetOperation parameter : statement.parameters()) {
+                    parameter.getMethod().invoke(explain, parameter.getArgs());
+                }
+                List<String> plan = new ArrayList<>();
+                try (ResultSet rows = explain.executeQuery()) {
+                    while (rows.next()) {
+                        plan.add(rows.getString(1));
+                    }
+                }
+                return plan;
+            }
+        }
+    }
+    
+    private record CapturedStatement(String sql, List<ParameterSetOperation> parameters) {
+    }
+}
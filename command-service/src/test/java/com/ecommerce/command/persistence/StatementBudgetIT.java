@@ -0,0 +1,93 @@
+package com.ecommerce.command.persistence;
+
+import com.ecommerce.command.AbstractIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+
+/**
+ * Calls every command once with {@code statement-budget.fail-on-exceed=true}, so a command that
+ * issues more statements than its {@link StatementBudget} allows fails the build. Add a call
+ * for every new command.
+ */
+@SpringBootTest(properties = "statement-budget.fail-on-exceed=true")
+@AutoConfigureMockMvc
+class StatementBudgetIT extends AbstractIntegrationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void everyCommandStaysWithinItsBudget() throws Exception {
+        long run = System.currentTimeMillis();
+        long p1 = call("createProduct", HttpMethod.POST, "/products", """
+                {"sku": "BUDGET-%d-1", "name": "Budget", "price": 9.99, "initialInventory": 100,
+                 "tags": [{"name": "color", "value": "red"}, {"name": "size", "value": "L"}]}
+                """.formatted(run)).path("id").asLong();
+        long p2 = call("createProduct", HttpMethod.POST, "/products", """
+                {"sku": "BUDGET-%d-2", "name": "Budget", "price": 4.99, "initialInventory": 100}
+                """.formatted(run)).path("id").asLong();
+        
+        call("updateProduct", HttpMethod.PUT, "/products/" + p1, """
+                {"name": "Budget renamed", "price": 10.99}
+                """);
+        long tagId = call("addTagToProduct", HttpMethod.POST, "/products/" + p2 + "/tags", """
+                {"name": "material", "value": "cotton"}
+                """).path("tagId").asLong();
+        call("removeTagFromProduct", HttpMethod.DELETE, "/products/" + p2 + "/tags/" + tagId, null);
+        call("replaceProductTags", HttpMethod.PUT, "/products/" + p2 + "/tags", """
+                {"tags": [{"name": "color", "value": "blue"}, {"name": "size", "value": "M"}]}
+                """);
+        call("mergeProductTags", HttpMethod.PATCH, "/products/" + p2 + "/tags", """
+                {"tags": [{"name": "season", "value": "summer"}]}
+                """);
+        call("applyTagToProducts", HttpMethod.POST, "/products/tags/bulk", """
+                {"tag": {"name": "sale", "value": "true"}, "productIds": [%d, %d]}
+                """.formatted(p1, p2));
+        call("updateInventory", HttpMethod.PUT, "/products/" + p1 + "/inventory", """
+                {"quantityChange": 50}
+                """);
+        call("createOrder", HttpMethod.POST, "/orders", """
+                {"items": [{"productId": %d, "quantity": 2}, {"productId": %d, "quantity": 1}]}
+                """.formatted(p1, p2));
+        
+        double overruns = meterRegistry.find("statement.budget.exceeded").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+        assertThat(overruns).as("statement budget overruns").isZero();
+    }
+    
+    // An overrun fails the request with a 500, so every command has to succeed
+    private JsonNode call(String command, HttpMethod method, String path, String body) throws Exception {
+        MockHttpServletRequestBuilder request = request(method, path);
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(body);
+        }
+        MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+        assertThat(response.getStatus())
+                .as("%s returned %d: %s", command, response.getStatus(), response.getContentAsString())
+                .isBetween(200, 299);
+        return response.getContentAsString().isEmpty()
+                ? objectMapper.missingNode()
+                : objectMapper.readTree(response.getContentAsString());
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.command.service;
+
+import com.ecommerce.command.AbstractIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that a SKU created by another instance, which this instance's SKU filter has never seen,
+ * is rejected as a duplicate rather than as a generic integrity violation.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CreateProductIT extends AbstractIntegrationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Test
+    void skuCreatedByAnotherInstanceIsDuplicate() throws Exception {
+        String sku = "OTHER-INSTANCE-" + System.currentTimeMillis();
+        try (Connection connection = DriverManager.getConnection(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO products (sku, name, price) VALUES (?, 'Other instance', 1.00)")) {
+            insert.setString(1, sku);
+            insert.executeUpdate();
+        }
+        
+        mockMvc.perform(post("/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"sku": "%s", "name": "Duplicate", "price": 9.99, "initialInventory": 10,
+                                 "tags": [{"name": "color", "value": "red"}]}
+                                """.formatted(sku)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("DUPLICATE_RESOURCE"));
+    }
+}
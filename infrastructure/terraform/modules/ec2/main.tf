@@ -91,9 +91,9 @@ resource "aws_instance" "api_gateway_monitoring_1" {
           - targets: ['localhost:9090']
 
       - job_name: 'command-service'
-        metrics_path: '/api/commands/actuator/prometheus'
+        metrics_path: '/actuator/prometheus'
         static_configs:
-          - targets: ['command-service-1:8080', 'command-service-2:8080']
+          - targets: ['command-service-1:8091', 'command-service-2:8091']
 
       - job_name: 'query-service'
         metrics_path: '/metrics'
@@ -253,6 +253,7 @@ resource "aws_instance" "command_service_kafka_1" {
         image: justbrowsing/command-service:latest
         ports:
           - "8080:8080"
+          - "8091:8091"
         environment:
           - SPRING_DATASOURCE_URL=jdbc:postgresql://postgres:5432/ecommerce
           - SPRING_DATASOURCE_USERNAME=postgres
@@ -261,7 +262,7 @@ resource "aws_instance" "command_service_kafka_1" {
           - SPRING_KAFKA_PRODUCER_PROPERTIES_SCHEMA_REGISTRY_URL=http://schema-registry:8081
           - JAVA_OPTS=-Xms256m -Xmx512m -XX:+UseCompressedOops -Xss256k
         healthcheck:
-          test: ["CMD", "curl", "-f", "http://localhost:8080/api/commands/actuator/health"]
+          test: ["CMD", "curl", "-f", "http://localhost:8091/actuator/health"]
           interval: 30s
           timeout: 10s
           retries: 3
@@ -324,6 +325,7 @@ resource "aws_instance" "command_service_2" {
         image: justbrowsing/command-service:latest
         ports:
           - "8080:8080"
+          - "8091:8091"
         environment:
           - SPRING_DATASOURCE_URL=jdbc:postgresql://postgres:5432/ecommerce
           - SPRING_DATASOURCE_USERNAME=postgres
@@ -332,7 +334,7 @@ resource "aws_instance" "command_service_2" {
           - SPRING_KAFKA_PRODUCER_PROPERTIES_SCHEMA_REGISTRY_URL=http://schema-registry:8081
           - JAVA_OPTS=-Xms256m -Xmx512m -XX:+UseCompressedOops -Xss256k
         healthcheck:
-          test: ["CMD", "curl", "-f", "http://localhost:8080/api/commands/actuator/health"]
+          test: ["CMD", "curl", "-f", "http://localhost:8091/actuator/health"]
           interval: 30s
           timeout: 10s
           retries: 3
@@ -85,7 +85,7 @@ resource "aws_lb_target_group" "command_service" {
   vpc_id   = var.vpc_id
 
   health_check {
-    path                = "/api/commands/actuator/health"
+    path                = "/api/commands/readyz"
     interval            = 30
     timeout             = 5
     healthy_threshold   = 2
@@ -56,6 +56,14 @@ resource "aws_security_group" "command_service" {
     security_groups = [aws_security_group.api_gateway.id]
   }
 
+  # Actuator (management port) from Prometheus only
+  ingress {
+    from_port       = 8091
+    to_port         = 8091
+    protocol        = "tcp"
+    security_groups = [aws_security_group.monitoring.id]
+  }
+
   # SSH
   ingress {
     from_port   = 22